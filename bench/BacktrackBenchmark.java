@@ -0,0 +1,42 @@
+package com.sudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BacktrackBenchmark {
+
+	// Index into HardPuzzles.CORPUS. Puzzles 0, 1 and 10 are left out, as the
+	// original search takes 5 to 25 seconds on each of them.
+	@Param({ "2", "3", "4", "5", "6", "7", "8", "9" })
+	public int puzzle;
+
+	private int[] givens;
+	private int[] grid;
+	private Solver solver;
+
+	@Setup
+	public void setup() {
+		givens = HardPuzzles.parse(HardPuzzles.CORPUS[puzzle]);
+		grid = new int[81];
+		solver = Solvers.create(Solvers.BACKTRACK);
+	}
+
+	@Benchmark
+	public boolean solve() {
+		System.arraycopy(givens, 0, grid, 0, 81);
+		return solver.solve(grid);
+	}
+
+	@Benchmark
+	public int countSolutions() {
+		return solver.countSolutions(givens, 2);
+	}
+}
@@ -0,0 +1,32 @@
+package com.sudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+	/**
+	 * Runs every benchmark in this directory (or only those matching the first
+	 * argument, a regular expression) in throughput mode with the GC profiler, so
+	 * each result reports ops/s alongside gc.alloc.rate.norm (bytes per op).
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "com\\.sudoku\\.game\\..*Benchmark";
+		Options options = new OptionsBuilder()
+				.include(include)
+				.mode(Mode.Throughput)
+				.timeUnit(TimeUnit.SECONDS)
+				.warmupIterations(3)
+				.measurementIterations(5)
+				.forks(1)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
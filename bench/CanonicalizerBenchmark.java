@@ -0,0 +1,53 @@
+package com.sudoku.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+@State(Scope.Thread)
+public class CanonicalizerBenchmark {
+
+	private static final int GRIDS = 64;
+
+	private int[][] grids;
+	private Puzzle[] puzzles;
+	private int next;
+	private GridCanonicalizer canonicalizer;
+	private FingerprintSet fingerprints;
+	private long added;
+
+	@Setup
+	public void setup() {
+		SudokuGenerator generator = new SudokuGenerator();
+		PuzzleGenerator puzzleGenerator = new PuzzleGenerator();
+		grids = new int[GRIDS][81];
+		puzzles = new Puzzle[GRIDS];
+		for (int i = 0; i < GRIDS; i++) {
+			generator.generate(grids[i], i);
+			puzzles[i] = puzzleGenerator.generate(difficulty.ADVANCED, i);
+		}
+		canonicalizer = new GridCanonicalizer();
+		fingerprints = new FingerprintSet();
+	}
+
+	@Benchmark
+	public long fingerprintGrid() {
+		next = (next + 1) % GRIDS;
+		return canonicalizer.fingerprint(grids[next]);
+	}
+
+	@Benchmark
+	public long fingerprintPuzzle() {
+		next = (next + 1) % GRIDS;
+		return canonicalizer.fingerprint(puzzles[next]);
+	}
+
+	@Benchmark
+	public boolean addFingerprint() {
+		// A fresh fingerprint every time, so the set keeps growing as it would in a bank
+		return fingerprints.add(GridCanonicalizer.hash(grids[0]) + added++);
+	}
+}
@@ -0,0 +1,56 @@
+package com.sudoku.game;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+@State(Scope.Thread)
+public class GameJournalBenchmark {
+
+	@Param({ "NINE", "SIXTEEN", "TWENTY_FIVE" })
+	public BoardSize size;
+
+	private File file;
+
+	@Setup
+	public void setup() throws IOException {
+		// A snapshot followed by 500 notes, close to the most a save file replays
+		file = File.createTempFile("save", ".dat");
+		file.delete();
+		Puzzle puzzle = new PuzzleGenerator(size).generate(difficulty.EASY);
+		GameJournal journal = new GameJournal(file);
+		journal.start(new SavedGame(puzzle));
+		journal.flush();
+		int[] givens = puzzle.getGivens();
+		int cell = 0;
+		for (int move = 0; move < 500; move++) {
+			do {
+				cell = (cell + 7) % givens.length;
+			} while (givens[cell] != 0);
+			journal.note(cell, 1 + move % size.getWidth(), move * 1000);
+		}
+		journal.close();
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Benchmark
+	public SavedGame resume() throws IOException {
+		GameJournal journal = new GameJournal(file);
+		journal.load();
+		SavedGame saved = journal.getSavedGame();
+		journal.close();
+		return saved;
+	}
+}
@@ -0,0 +1,52 @@
+package com.sudoku.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+
+	@Param({ "NINE", "SIXTEEN", "TWENTY_FIVE" })
+	public BoardSize size;
+
+	private static final int SEED_GRIDS = 16;
+
+	private SudokuGenerator generator;
+	private SudokuGenerator seeded;
+	private int[] board;
+	private long seed;
+
+	@Setup
+	public void setup() {
+		generator = new SudokuGenerator(size);
+		board = new int[size.getCells()];
+		generator.generate(board);
+		seeded = new SudokuGenerator(size, SEED_GRIDS);
+	}
+
+	@Benchmark
+	public int[][] generateBoard() {
+		return generator.generateBoard();
+	}
+
+	@Benchmark
+	public int[] generateInto() {
+		generator.generate(board);
+		return board;
+	}
+
+	@Benchmark
+	public int[] generateFromSeedGrids() {
+		seeded.generate(board, seed++);
+		return board;
+	}
+
+	@Benchmark
+	public boolean verifyBoard() {
+		// Checks the last board generated in setup
+		return generator.verifyBoard();
+	}
+}
@@ -0,0 +1,38 @@
+package com.sudoku.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+@State(Scope.Thread)
+public class GraderBenchmark {
+
+	@Param({ "EASY", "INTERMEDIATE", "ADVANCED", "EXPERT" })
+	public difficulty dif;
+
+	private static final int PUZZLES = 64;
+
+	private int[][] puzzles;
+	private int next;
+	private LogicalSolver grader;
+
+	@Setup
+	public void setup() {
+		PuzzleGenerator generator = new PuzzleGenerator();
+		puzzles = new int[PUZZLES][];
+		for (int i = 0; i < PUZZLES; i++) {
+			puzzles[i] = generator.generate(dif).getGivens();
+		}
+		grader = new LogicalSolver();
+	}
+
+	@Benchmark
+	public Technique grade() {
+		next = (next + 1) % PUZZLES;
+		return grader.grade(puzzles[next]);
+	}
+}
@@ -0,0 +1,39 @@
+package com.sudoku.game;
+
+public class HardPuzzles {
+
+	/**
+	 * A fixed corpus of hard puzzles, one 81-character line each with '.' for an
+	 * empty square. Every entry has been checked to have exactly one solution. The
+	 * set mixes puzzles that need a lot of search with ones built specifically to
+	 * make row-major backtracking blow up, so slowdowns in either kind of search
+	 * show up in the benchmarks.
+	 */
+
+	static final String[] CORPUS = {
+			// "Hardest" puzzle from Peter Norvig's solver essay
+			"4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+			// Built to defeat brute force: the first row resolves to 987654321
+			"..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+			// Arto Inkala, 2012
+			"8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+			// AI Escargot
+			"1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..",
+			"85...24..72......9..4.........1.7..23.5...9...4...........8..7..17..........36.4.",
+			// Easter Monster
+			"1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1",
+			"..3......4...8..36..8...1...4..6..73...9..........2..5..4.7..686........7..6..5..",
+			"12.3....435....1....4........54..2..6...7.........8.9...31..5.......9.7.....6...8",
+			"..53.....8......2..7..1.5..4....53...1..7...6..32...8..6.5....9..4....3......97..",
+			"6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+			"........1.......23..4..5......1.........3.6....7...58.....67....1...4...52.......", };
+
+	static int[] parse(String line) {
+		int[] grid = new int[81];
+		for (int i = 0; i < 81; i++) {
+			char ch = line.charAt(i);
+			grid[i] = (ch >= '1' && ch <= '9') ? ch - '0' : 0;
+		}
+		return grid;
+	}
+}
@@ -0,0 +1,54 @@
+package com.sudoku.game;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+@State(Scope.Thread)
+public class HighScoresBenchmark {
+
+	private File file;
+	private ScoreStore store;
+	private int elapsed;
+
+	@Setup
+	public void setup() throws IOException {
+		// A full top 10, so every slower time is a lookup that doesn't change it
+		file = File.createTempFile("scores", ".dat");
+		file.delete();
+		store = ScoreStore.open(file);
+		for (int i = 0; i < ScoreStore.TOP_N; i++) {
+			store.record(BoardSize.NINE, difficulty.EASY, 300 + i * 97);
+		}
+		store.flush();
+		elapsed = 5000;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		store.close();
+		file.delete();
+	}
+
+	@Benchmark
+	public boolean recordSlowTime() {
+		return store.record(BoardSize.NINE, difficulty.EASY, elapsed);
+	}
+
+	@Benchmark
+	public int[] getTimes() {
+		return store.getTimes(BoardSize.NINE, difficulty.EASY);
+	}
+
+	@Benchmark
+	public String createTimestamp() {
+		return GameScreen.createTimestamp(elapsed);
+	}
+}
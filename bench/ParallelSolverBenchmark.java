@@ -0,0 +1,65 @@
+package com.sudoku.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelSolverBenchmark {
+
+	/**
+	 * Scaling curve for ParallelSolver: the same search on pools of 1 to 8 workers.
+	 * threads = 0 runs the sequential BitmaskSolver instead, as the baseline the
+	 * parallel numbers are compared against.
+	 */
+
+	// The 17-clue entries in HardPuzzles.CORPUS, where proving uniqueness takes the most search
+	@Param({ "0", "1", "9", "10" })
+	public int puzzle;
+
+	@Param({ "0", "1", "2", "4", "8" })
+	public int threads;
+
+	private int[] givens;
+	private int[] grid;
+	private ForkJoinPool pool;
+	private Solver solver;
+
+	@Setup
+	public void setup() {
+		givens = HardPuzzles.parse(HardPuzzles.CORPUS[puzzle]);
+		grid = new int[81];
+		if (threads == 0) {
+			solver = new BitmaskSolver();
+		} else {
+			pool = new ForkJoinPool(threads);
+			solver = new ParallelSolver(pool);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public boolean solve() {
+		System.arraycopy(givens, 0, grid, 0, 81);
+		return solver.solve(grid);
+	}
+
+	@Benchmark
+	public int countSolutions() {
+		return solver.countSolutions(givens, 2);
+	}
+}
@@ -0,0 +1,32 @@
+package com.sudoku.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+@State(Scope.Thread)
+public class PuzzleGeneratorBenchmark {
+
+	// Replaces the old pickClueSquares: picking clues now includes uniqueness checks
+	@Param({ "EASY", "INTERMEDIATE", "ADVANCED", "EXPERT" })
+	public difficulty dif;
+
+	@Param({ "NINE", "SIXTEEN", "TWENTY_FIVE" })
+	public BoardSize size;
+
+	private PuzzleGenerator generator;
+
+	@Setup
+	public void setup() {
+		generator = new PuzzleGenerator(size);
+	}
+
+	@Benchmark
+	public Puzzle generate() {
+		return generator.generate(dif);
+	}
+}
@@ -0,0 +1,45 @@
+package com.sudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+	// Index into HardPuzzles.CORPUS
+	@Param({ "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10" })
+	public int puzzle;
+
+	// "backtrack" takes seconds on some of these, so BacktrackBenchmark covers it
+	@Param({ Solvers.BITMASK, Solvers.DANCING_LINKS })
+	public String solverName;
+
+	private int[] givens;
+	private int[] grid;
+	private Solver solver;
+
+	@Setup
+	public void setup() {
+		givens = HardPuzzles.parse(HardPuzzles.CORPUS[puzzle]);
+		grid = new int[81];
+		solver = Solvers.create(solverName);
+	}
+
+	@Benchmark
+	public boolean solve() {
+		System.arraycopy(givens, 0, grid, 0, 81);
+		return solver.solve(grid);
+	}
+
+	@Benchmark
+	public int countSolutions() {
+		return solver.countSolutions(givens, 2);
+	}
+}
@@ -0,0 +1,111 @@
+package com.sudoku.game;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class AnimatedSolve implements SolveListener {
+
+	/**
+	 * Solves a board on a worker thread so that the GL thread can show the search as
+	 * it happens. Every number the BitmaskSolver tries or takes back is put on a
+	 * StepQueue as one int, the square times 32 plus the number (0 for taking it
+	 * back). The GL thread polls the steps at whatever rate it wants to animate
+	 * them. When the queue is full the worker waits, so the search only ever runs
+	 * QUEUE_CAPACITY steps ahead of the animation. cancel() stops the search at its
+	 * next step. skip() lets it run to the end at full speed without publishing
+	 * any more steps, for when the player doesn't want to watch.
+	 */
+
+	private static final int QUEUE_CAPACITY = 1024;
+	// How long the worker sleeps while the queue is full
+	private static final long FULL_WAIT_NANOS = 1000000;
+
+	private final BitmaskSolver solver;
+	private final int[] grid;
+	private final StepQueue steps = new StepQueue(QUEUE_CAPACITY);
+	private final Thread worker;
+
+	private volatile boolean cancelled;
+	private volatile boolean skipping;
+	// Set by the worker once the search is over; solved and grid are final by then
+	private volatile boolean done;
+	private boolean solved;
+
+	public AnimatedSolve(BoardSize size, int[] puzzle) {
+		solver = new BitmaskSolver(size);
+		solver.setListener(this);
+		grid = puzzle.clone();
+		worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				solved = solver.solve(grid);
+				done = true;
+			}
+		}, "Animated solve");
+		worker.setDaemon(true);
+	}
+
+	public void start() {
+		worker.start();
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public void skip() {
+		// Called by the GL thread, which should then drain the steps already queued
+		skipping = true;
+	}
+
+	public boolean isSkipping() {
+		return skipping;
+	}
+
+	public int poll() {
+		// The next step, or -1 if the worker hasn't got that far yet (or is finished)
+		return steps.poll();
+	}
+
+	public boolean isFinished() {
+		// Whether the search is over and every step has been polled
+		return done && steps.isEmpty();
+	}
+
+	public boolean isSolved() {
+		// Only meaningful once isFinished()
+		return solved;
+	}
+
+	public int[] getSolution() {
+		// The solved board, once isFinished() and isSolved()
+		return grid;
+	}
+
+	static int cellOf(int step) {
+		return step >>> 5;
+	}
+
+	static int numberOf(int step) {
+		return step & 31;
+	}
+
+	@Override
+	public boolean placed(int pos, int number) {
+		return publish(pos << 5 | number);
+	}
+
+	@Override
+	public boolean removed(int pos) {
+		return publish(pos << 5);
+	}
+
+	private boolean publish(int step) {
+		while (!skipping && !steps.offer(step)) {
+			if (cancelled) {
+				return false;
+			}
+			LockSupport.parkNanos(FULL_WAIT_NANOS);
+		}
+		return !cancelled;
+	}
+}
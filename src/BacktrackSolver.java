@@ -0,0 +1,162 @@
+package com.sudoku.game;
+
+public class BacktrackSolver implements Solver {
+
+	/**
+	 * The original solving algorithm from GameScreen, moved onto a flat, row-major
+	 * int[] of any BoardSize (0 marks an empty square). It fills the first empty
+	 * square in row-major order with the first number that is valid there and
+	 * recurses, rescanning the row, column and sector for every candidate. It is
+	 * much slower than the other solvers and is only kept as a baseline to measure
+	 * against.
+	 */
+
+	private final int width;
+	private final int boxSize;
+	private final int cells;
+
+	private final int[] grid;
+
+	private int solutions;
+	private int limit;
+	private int[] firstSolution;
+
+	public BacktrackSolver() {
+		this(BoardSize.NINE);
+	}
+
+	public BacktrackSolver(BoardSize size) {
+		width = size.getWidth();
+		boxSize = size.getBoxSize();
+		cells = size.getCells();
+		grid = new int[cells];
+	}
+
+	@Override
+	public String getName() {
+		return Solvers.BACKTRACK;
+	}
+
+	@Override
+	public boolean solve(int[] puzzle) {
+		if (!load(puzzle) || !backtrackSolve()) {
+			return false;
+		}
+		System.arraycopy(grid, 0, puzzle, 0, cells);
+		return true;
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit) {
+		return countSolutions(puzzle, limit, null);
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit, int[] solution) {
+		if (!load(puzzle)) {
+			return 0;
+		}
+		solutions = 0;
+		this.limit = limit;
+		firstSolution = solution;
+		count();
+		firstSolution = null;
+		return solutions;
+	}
+
+	private boolean load(int[] puzzle) {
+		if (puzzle.length != cells) {
+			throw new IllegalArgumentException("Expected " + cells + " squares but got " + puzzle.length);
+		}
+		System.arraycopy(puzzle, 0, grid, 0, cells);
+		for (int i = 0; i < cells; i++) {
+			if (grid[i] != 0 && !valid(i / width, i % width, grid[i])) {
+				return false; // Two clues share a row, column or sector
+			}
+		}
+		return true;
+	}
+
+	private boolean backtrackSolve() {
+		int empty = findEmpty();
+		if (empty == -1) {
+			return true;
+		}
+		int row = empty / width, col = empty % width;
+
+		for (int i = 1; i <= width; i++) {
+			if (valid(row, col, i)) {
+				grid[empty] = i;
+				if (backtrackSolve()) {
+					return true;
+				}
+				grid[empty] = 0;
+			}
+		}
+		return false;
+	}
+
+	private void count() {
+		// Same search as backtrackSolve, but keeps going until limit solutions are found
+		int empty = findEmpty();
+		if (empty == -1) {
+			if (solutions == 0 && firstSolution != null) {
+				System.arraycopy(grid, 0, firstSolution, 0, cells);
+			}
+			solutions++;
+			return;
+		}
+		int row = empty / width, col = empty % width;
+
+		for (int i = 1; i <= width && solutions < limit; i++) {
+			if (valid(row, col, i)) {
+				grid[empty] = i;
+				count();
+				grid[empty] = 0;
+			}
+		}
+	}
+
+	private boolean valid(int row, int col, int num) {
+		/**
+		 * Returns whether num can occupy the square located in the sudoku board at
+		 * (row, col)
+		 */
+		// Check row
+		for (int c = 0; c < width; c++) {
+			if (c != col && grid[row * width + c] == num) {
+				return false;
+			}
+		}
+		// Check column
+		for (int r = 0; r < width; r++) {
+			if (r != row && grid[r * width + col] == num) {
+				return false;
+			}
+		}
+		// Check sectors
+		int rowStart = (row / boxSize) * boxSize, rowEnd = rowStart + boxSize;
+		int colStart = (col / boxSize) * boxSize, colEnd = colStart + boxSize;
+		for (int r = rowStart; r < rowEnd; r++) {
+			for (int c = colStart; c < colEnd; c++) {
+				if ((r != row || c != col) && grid[r * width + c] == num) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private int findEmpty() {
+		/**
+		 * Traverses the board row by row, and returns the position of the first empty
+		 * square. Returns -1 if no empty square is found.
+		 */
+		for (int i = 0; i < cells; i++) {
+			if (grid[i] == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,178 @@
+package com.sudoku.game.desktop;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sudoku.game.LatencyHistogram;
+import com.sudoku.game.Solver;
+import com.sudoku.game.Solvers;
+
+public class BatchSolveLauncher {
+
+	/**
+	 * Headless entry point that solves a file of puzzles without opening a window.
+	 * Each input line is one puzzle of 81 characters ('1'-'9' for a clue, '0' or '.'
+	 * for an empty square). Lines are read in chunks, the chunks are solved on a
+	 * fixed pool of threads (each with its own solver, by default the same engine
+	 * the game uses), and the results are written back in input order. Only a bounded
+	 * number of chunks is in flight at once, so files with millions of lines are
+	 * streamed instead of loaded.
+	 *
+	 * Each output line is the solution, the first solution found followed by
+	 * " multiple" if the puzzle is not unique, "unsolvable", or "invalid" for a line
+	 * that isn't a puzzle.
+	 *
+	 * Usage: BatchSolveLauncher <input> <output> [threads] [solver]
+	 */
+
+	private static final int CELLS = 81;
+	private static final int CHUNK_SIZE = 1024;
+
+	// Indices into the totals array, also used as the status of each puzzle
+	private static final int SOLVED = 0;
+	private static final int MULTIPLE = 1;
+	private static final int UNSOLVABLE = 2;
+	private static final int INVALID = 3;
+
+	public static void main(String[] arg) throws IOException, InterruptedException, ExecutionException {
+		if (arg.length < 2) {
+			System.err.println("Usage: BatchSolveLauncher <input> <output> [threads] [solver]");
+			System.err.println("Solvers: " + String.join(", ", Solvers.names()));
+			System.exit(2);
+		}
+		int threads = arg.length > 2 ? Integer.parseInt(arg[2]) : Runtime.getRuntime().availableProcessors();
+		final String solverName = arg.length > 3 ? arg[3] : Solvers.DEFAULT;
+		Solvers.create(solverName); // Fail fast on an unknown name
+		final ThreadLocal<Solver> solvers = new ThreadLocal<Solver>() {
+			@Override
+			protected Solver initialValue() {
+				return Solvers.create(solverName);
+			}
+		};
+
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<Future<Chunk>>();
+		int maxInFlight = threads * 4;
+		LatencyHistogram latencies = new LatencyHistogram();
+		long[] totals = new long[4];
+
+		long start = System.nanoTime();
+		BufferedReader reader = new BufferedReader(new FileReader(arg[0]), 1 << 16);
+		BufferedWriter writer = new BufferedWriter(new FileWriter(arg[1]), 1 << 16);
+		try {
+			Chunk chunk = new Chunk(solvers);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				chunk.lines[chunk.size++] = line;
+				if (chunk.size == CHUNK_SIZE) {
+					inFlight.add(workers.submit(chunk));
+					chunk = new Chunk(solvers);
+					// Write finished chunks in order so memory stays bounded
+					while (inFlight.size() >= maxInFlight) {
+						inFlight.poll().get().writeTo(writer, latencies, totals);
+					}
+				}
+			}
+			if (chunk.size > 0) {
+				inFlight.add(workers.submit(chunk));
+			}
+			while (!inFlight.isEmpty()) {
+				inFlight.poll().get().writeTo(writer, latencies, totals);
+			}
+		} finally {
+			workers.shutdownNow();
+			reader.close();
+			writer.close();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long puzzles = totals[SOLVED] + totals[MULTIPLE] + totals[UNSOLVABLE];
+		System.out.printf("Solved %d puzzles in %.2f s on %d threads with %s (%.0f puzzles/s)%n", puzzles,
+				seconds, threads, solverName, puzzles / seconds);
+		System.out.printf("Latency per puzzle: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+				latencies.percentile(50) / 1e3, latencies.percentile(99) / 1e3, latencies.getMax() / 1e3);
+		System.out.printf("Unsolvable: %d, multiple solutions: %d, invalid lines: %d%n", totals[UNSOLVABLE],
+				totals[MULTIPLE], totals[INVALID]);
+	}
+
+	private static class Chunk implements Callable<Chunk> {
+
+		private final String[] lines = new String[CHUNK_SIZE];
+		private final String[] results = new String[CHUNK_SIZE];
+		private final int[] status = new int[CHUNK_SIZE];
+		private final long[] nanos = new long[CHUNK_SIZE];
+		private final ThreadLocal<Solver> solvers;
+		private int size;
+
+		private Chunk(ThreadLocal<Solver> solvers) {
+			this.solvers = solvers;
+		}
+
+		@Override
+		public Chunk call() {
+			Solver solver = solvers.get();
+			int[] puzzle = new int[CELLS];
+			int[] solution = new int[CELLS];
+			char[] text = new char[CELLS];
+			for (int i = 0; i < size; i++) {
+				long start = System.nanoTime();
+				if (!parse(lines[i], puzzle)) {
+					results[i] = "invalid";
+					status[i] = INVALID;
+					continue;
+				}
+				int count = solver.countSolutions(puzzle, 2, solution);
+				if (count == 0) {
+					results[i] = "unsolvable";
+					status[i] = UNSOLVABLE;
+				} else {
+					for (int k = 0; k < CELLS; k++) {
+						text[k] = (char) ('0' + solution[k]);
+					}
+					results[i] = count == 1 ? new String(text) : new String(text) + " multiple";
+					status[i] = count == 1 ? SOLVED : MULTIPLE;
+				}
+				nanos[i] = System.nanoTime() - start;
+			}
+			return this;
+		}
+
+		private void writeTo(BufferedWriter writer, LatencyHistogram latencies, long[] totals) throws IOException {
+			for (int i = 0; i < size; i++) {
+				writer.write(results[i]);
+				writer.newLine();
+				totals[status[i]]++;
+				if (status[i] != INVALID) {
+					latencies.record(nanos[i]);
+				}
+			}
+		}
+
+		private static boolean parse(String line, int[] puzzle) {
+			line = line.trim();
+			if (line.length() != CELLS) {
+				return false;
+			}
+			for (int i = 0; i < CELLS; i++) {
+				char ch = line.charAt(i);
+				if (ch >= '1' && ch <= '9') {
+					puzzle[i] = ch - '0';
+				} else if (ch == '0' || ch == '.') {
+					puzzle[i] = 0;
+				} else {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package com.sudoku.game;
+
+public class BitmaskSolver implements Solver {
+
+	/**
+	 * Solves a sudoku of any BoardSize stored as a flat, row-major int[] where 0
+	 * marks an empty square. Each row, column and sector keeps an int mask of the
+	 * numbers it already contains (9 to 25 bits), so the candidates for a square
+	 * are found with a couple of bitwise operations instead of rescanning the
+	 * board. The search always fills the empty square with the fewest candidates
+	 * next (minimum remaining values). All of the working arrays are allocated once
+	 * per solver, so the search itself does not allocate; a solver instance must
+	 * not be shared between threads.
+	 */
+
+	private final int width;
+	private final int cells;
+	private final int allDigits;
+
+	// The row, column and sector of every square, indexed by its flat position
+	private final int[] rowOf;
+	private final int[] colOf;
+	private final int[] boxOf;
+
+	private final int[] grid;
+	private final int[] rowUsed;
+	private final int[] colUsed;
+	private final int[] boxUsed;
+
+	// The positions of the empty squares; the first "depth" entries are filled
+	private final int[] empty;
+	private int emptyCount;
+
+	// Used while counting solutions
+	private int solutions;
+	private int limit;
+	private int[] firstSolution;
+	private long nodes;
+	private long backtracks;
+	private long nodeLimit = Long.MAX_VALUE;
+
+	// Told about every square solve() fills and empties; null unless a solve is animated
+	private SolveListener listener;
+	private boolean stopped;
+
+	public BitmaskSolver() {
+		this(BoardSize.NINE);
+	}
+
+	public BitmaskSolver(BoardSize size) {
+		width = size.getWidth();
+		cells = size.getCells();
+		allDigits = size.getAllDigits();
+		rowOf = size.rowOf;
+		colOf = size.colOf;
+		boxOf = size.boxOf;
+		grid = new int[cells];
+		rowUsed = new int[width];
+		colUsed = new int[width];
+		boxUsed = new int[width];
+		empty = new int[cells];
+	}
+
+	@Override
+	public String getName() {
+		return Solvers.BITMASK;
+	}
+
+	@Override
+	public boolean solve(int[] puzzle) {
+		stopped = false;
+		nodes = 0;
+		backtracks = 0;
+		boolean solved = load(puzzle) && search(0);
+		report();
+		if (!solved) {
+			return false;
+		}
+		System.arraycopy(grid, 0, puzzle, 0, cells);
+		return true;
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit) {
+		return countSolutions(puzzle, limit, null);
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit, int[] solution) {
+		/**
+		 * A limit of 2 is enough to tell whether a puzzle is unique; with a solution
+		 * array the same search also solves it.
+		 */
+		if (!load(puzzle)) {
+			return 0;
+		}
+		solutions = 0;
+		this.limit = limit;
+		firstSolution = solution;
+		nodes = 0;
+		backtracks = 0;
+		count(0);
+		firstSolution = null;
+		report();
+		return solutions;
+	}
+
+	private void report() {
+		// Once per search rather than once per step
+		Metrics.count(Metrics.Counter.SOLVER_NODES, nodes);
+		Metrics.count(Metrics.Counter.SOLVER_BACKTRACKS, backtracks);
+	}
+
+	void setNodeLimit(long nodeLimit) {
+		/**
+		 * Caps how many squares countSolutions may try to fill before giving up, so
+		 * that a caller can bound the time a single check takes on a large, sparse
+		 * board. Use hitNodeLimit afterwards to tell a real count from one that was
+		 * cut short.
+		 */
+		this.nodeLimit = nodeLimit;
+	}
+
+	boolean hitNodeLimit() {
+		return nodes > nodeLimit;
+	}
+
+	void setListener(SolveListener listener) {
+		/**
+		 * Reports every number solve() tries and takes back to listener, which can stop
+		 * the search (solve() then returns false).
+		 */
+		this.listener = listener;
+	}
+
+	private boolean load(int[] puzzle) {
+		if (puzzle.length != cells) {
+			throw new IllegalArgumentException("Expected " + cells + " squares but got " + puzzle.length);
+		}
+		for (int i = 0; i < width; i++) {
+			rowUsed[i] = 0;
+			colUsed[i] = 0;
+			boxUsed[i] = 0;
+		}
+		emptyCount = 0;
+		for (int i = 0; i < cells; i++) {
+			int num = puzzle[i];
+			grid[i] = num;
+			if (num == 0) {
+				empty[emptyCount++] = i;
+				continue;
+			}
+			if (num < 0 || num > width) {
+				throw new IllegalArgumentException("Square " + i + " holds " + num + ", expected 0-" + width);
+			}
+			int bit = 1 << (num - 1);
+			if (((rowUsed[rowOf[i]] | colUsed[colOf[i]] | boxUsed[boxOf[i]]) & bit) != 0) {
+				return false; // Two clues share a row, column or sector
+			}
+			place(i, bit);
+		}
+		return true;
+	}
+
+	private boolean search(int depth) {
+		if (depth == emptyCount) {
+			return true;
+		}
+
+		// Find the empty square with the fewest candidates and move it to this depth
+		int best = depth;
+		int bestCount = width + 1;
+		for (int k = depth; k < emptyCount; k++) {
+			int count = Integer.bitCount(candidates(empty[k]));
+			if (count < bestCount) {
+				best = k;
+				bestCount = count;
+				if (count <= 1) {
+					break; // Can't do better than a forced (or impossible) square
+				}
+			}
+		}
+		if (bestCount == 0) {
+			return false;
+		}
+		int pos = empty[best];
+		empty[best] = empty[depth];
+		empty[depth] = pos;
+
+		int options = candidates(pos);
+		while (options != 0) {
+			int bit = options & -options;
+			options ^= bit;
+			grid[pos] = Integer.numberOfTrailingZeros(bit) + 1;
+			place(pos, bit);
+			nodes++;
+			if (listener != null && !listener.placed(pos, grid[pos])) {
+				stopped = true;
+			}
+			if (!stopped && search(depth + 1)) {
+				return true;
+			}
+			remove(pos, bit);
+			backtracks++;
+			if (stopped) {
+				break;
+			}
+			if (listener != null && !listener.removed(pos)) {
+				stopped = true;
+				break;
+			}
+		}
+		grid[pos] = 0;
+		return false;
+	}
+
+	private void count(int depth) {
+		// Same search as above, but keeps going after a solution until limit is reached
+		if (++nodes > nodeLimit) {
+			return;
+		}
+		if (depth == emptyCount) {
+			if (solutions == 0 && firstSolution != null) {
+				System.arraycopy(grid, 0, firstSolution, 0, cells);
+			}
+			solutions++;
+			return;
+		}
+		int best = depth;
+		int bestCount = width + 1;
+		for (int k = depth; k < emptyCount; k++) {
+			int count = Integer.bitCount(candidates(empty[k]));
+			if (count < bestCount) {
+				best = k;
+				bestCount = count;
+				if (count <= 1) {
+					break;
+				}
+			}
+		}
+		if (bestCount == 0) {
+			return;
+		}
+		int pos = empty[best];
+		empty[best] = empty[depth];
+		empty[depth] = pos;
+
+		int options = candidates(pos);
+		while (options != 0 && solutions < limit && nodes <= nodeLimit) {
+			int bit = options & -options;
+			options ^= bit;
+			grid[pos] = Integer.numberOfTrailingZeros(bit) + 1;
+			place(pos, bit);
+			count(depth + 1);
+			remove(pos, bit);
+			backtracks++;
+		}
+		grid[pos] = 0;
+	}
+
+	private int candidates(int pos) {
+		return ~(rowUsed[rowOf[pos]] | colUsed[colOf[pos]] | boxUsed[boxOf[pos]]) & allDigits;
+	}
+
+	private void place(int pos, int bit) {
+		rowUsed[rowOf[pos]] |= bit;
+		colUsed[colOf[pos]] |= bit;
+		boxUsed[boxOf[pos]] |= bit;
+	}
+
+	private void remove(int pos, int bit) {
+		rowUsed[rowOf[pos]] &= ~bit;
+		colUsed[colOf[pos]] &= ~bit;
+		boxUsed[boxOf[pos]] &= ~bit;
+	}
+}
@@ -0,0 +1,60 @@
+package com.sudoku.game;
+
+public class BoardModel {
+
+	/**
+	 * The numbers on the board during a game, with a bitmask per row, column and
+	 * sector of the numbers already in it (bit n - 1 for the number n, as in
+	 * BoardSize.getAllDigits). The masks are updated as numbers are placed, so
+	 * asking which numbers could still go in a square is a couple of ORs instead
+	 * of a scan of the square's row, column and sector.
+	 */
+
+	private final BoardSize size;
+	private final int[] grid;
+	private final int[] rowUsed;
+	private final int[] colUsed;
+	private final int[] boxUsed;
+
+	public BoardModel(BoardSize size) {
+		this.size = size;
+		int width = size.getWidth();
+		grid = new int[size.getCells()];
+		rowUsed = new int[width];
+		colUsed = new int[width];
+		boxUsed = new int[width];
+	}
+
+	public void place(int cell, int number) {
+		if (grid[cell] != 0) {
+			throw new IllegalArgumentException("Square " + cell + " already holds " + grid[cell]);
+		}
+		if (number < 1 || number > size.getWidth()) {
+			throw new IllegalArgumentException("No " + number + " on a " + size.getLabel() + " board");
+		}
+		int bit = 1 << (number - 1);
+		grid[cell] = number;
+		rowUsed[size.rowOf[cell]] |= bit;
+		colUsed[size.colOf[cell]] |= bit;
+		boxUsed[size.boxOf[cell]] |= bit;
+	}
+
+	public int get(int cell) {
+		// 0 if the square is empty
+		return grid[cell];
+	}
+
+	public int getCandidates(int cell) {
+		// The numbers that could still go in an empty square, as a bitmask; 0 if it is filled
+		if (grid[cell] != 0) {
+			return 0;
+		}
+		return ~(rowUsed[size.rowOf[cell]] | colUsed[size.colOf[cell]] | boxUsed[size.boxOf[cell]])
+				& size.getAllDigits();
+	}
+
+	public int[] getPeers(int cell) {
+		// The squares sharing a row, column or sector with cell
+		return size.peersOf[cell];
+	}
+}
@@ -0,0 +1,89 @@
+package com.sudoku.game;
+
+public enum BoardSize {
+
+	/**
+	 * The board sizes the game supports. A board is made of boxSize x boxSize
+	 * sectors, each boxSize squares wide, so it holds the numbers 1 to
+	 * boxSize * boxSize. Boards are flat, row-major int[]s of getCells() squares.
+	 * The row, column and sector of every square are worked out once here, so the
+	 * generator and solvers never need a division in their inner loops.
+	 */
+
+	NINE(3), SIXTEEN(4), TWENTY_FIVE(5);
+
+	private final int boxSize;
+	private final int width;
+	private final int cells;
+
+	// The row, column and sector of every square, indexed by its flat position
+	final int[] rowOf;
+	final int[] colOf;
+	final int[] boxOf;
+	// The squares sharing a row, column or sector with every square
+	final int[][] peersOf;
+
+	private BoardSize(int boxSize) {
+		this.boxSize = boxSize;
+		width = boxSize * boxSize;
+		cells = width * width;
+		rowOf = new int[cells];
+		colOf = new int[cells];
+		boxOf = new int[cells];
+		for (int i = 0; i < cells; i++) {
+			rowOf[i] = i / width;
+			colOf[i] = i % width;
+			boxOf[i] = (rowOf[i] / boxSize) * boxSize + (colOf[i] / boxSize);
+		}
+		// A square's row and column, plus the rest of its sector
+		peersOf = new int[cells][3 * width - 2 * boxSize - 1];
+		for (int i = 0; i < cells; i++) {
+			int count = 0;
+			for (int k = 0; k < width; k++) {
+				int inRow = rowOf[i] * width + k;
+				int inCol = k * width + colOf[i];
+				int inBox = ((rowOf[i] / boxSize) * boxSize + k / boxSize) * width + (colOf[i] / boxSize) * boxSize
+						+ k % boxSize;
+				if (inRow != i) {
+					peersOf[i][count++] = inRow;
+				}
+				if (inCol != i) {
+					peersOf[i][count++] = inCol;
+				}
+				if (rowOf[inBox] != rowOf[i] && colOf[inBox] != colOf[i]) {
+					peersOf[i][count++] = inBox;
+				}
+			}
+		}
+	}
+
+	public int getBoxSize() {
+		return boxSize;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getCells() {
+		return cells;
+	}
+
+	public int getAllDigits() {
+		// Bit n - 1 stands for the number n; 25 numbers still fit in an int
+		return (1 << width) - 1;
+	}
+
+	public String getLabel() {
+		return width + "x" + width;
+	}
+
+	public static BoardSize forCells(int cells) {
+		for (BoardSize size : values()) {
+			if (size.cells == cells) {
+				return size;
+			}
+		}
+		throw new IllegalArgumentException("No board has " + cells + " squares");
+	}
+}
@@ -0,0 +1,269 @@
+package com.sudoku.game;
+
+public class DancingLinksSolver implements Solver {
+
+	/**
+	 * Solves sudoku as an exact cover problem with Knuth's Algorithm X on dancing
+	 * links. There is one matrix row for every (square, number) choice and one
+	 * column for every constraint: each square is filled once, and each number
+	 * appears once in every row, column and sector (4 * 81 = 324 columns on a 9x9
+	 * board). The whole matrix, one row of 4 nodes per choice (729 on a 9x9 board),
+	 * is linked once into preallocated int arrays when the solver is created. The
+	 * clues are covered before the search and uncovered again afterwards, so
+	 * solving never rebuilds or allocates. The search always branches on the column
+	 * with the fewest remaining rows, so it never walks into the dead ends that
+	 * make row-major backtracking blow up.
+	 */
+
+	private static final int ROOT = 0;
+
+	private final int width;
+	private final int cells;
+	private final int columns;
+	private final int rows;
+
+	// Node links; indices 1 to columns are the column headers
+	private final int[] left;
+	private final int[] right;
+	private final int[] up;
+	private final int[] down;
+	private final int[] header;
+	private final int[] rowOf;
+	private final int[] size;
+
+	// The first node of every matrix row, and whether a column has been covered by a clue
+	private final int[] rowStart;
+	private final boolean[] covered;
+
+	// The clue rows that were covered, and the rows picked at each search depth
+	private final int[] clueRows;
+	private final int[] chosen;
+
+	private final int[] scratch;
+
+	private int solutions;
+	private int limit;
+	private int[] firstSolution;
+
+	public DancingLinksSolver() {
+		this(BoardSize.NINE);
+	}
+
+	public DancingLinksSolver(BoardSize board) {
+		width = board.getWidth();
+		cells = board.getCells();
+		columns = 4 * cells;
+		rows = cells * width;
+		int nodes = 1 + columns + rows * 4;
+		left = new int[nodes];
+		right = new int[nodes];
+		up = new int[nodes];
+		down = new int[nodes];
+		header = new int[nodes];
+		rowOf = new int[nodes];
+		size = new int[1 + columns];
+		rowStart = new int[rows];
+		covered = new boolean[1 + columns];
+		clueRows = new int[cells];
+		chosen = new int[cells];
+		scratch = new int[cells];
+
+		for (int c = 0; c <= columns; c++) {
+			left[c] = c == 0 ? columns : c - 1;
+			right[c] = c == columns ? 0 : c + 1;
+			up[c] = c;
+			down[c] = c;
+			header[c] = c;
+		}
+		int node = columns + 1;
+		for (int r = 0; r < rows; r++) {
+			int pos = r / width, num = r % width;
+			int row = board.rowOf[pos], col = board.colOf[pos], box = board.boxOf[pos];
+			int first = node;
+			rowStart[r] = first;
+			for (int k = 0; k < 4; k++) {
+				int c;
+				switch (k) {
+				case 0:
+					c = pos; // The square is filled
+					break;
+				case 1:
+					c = cells + row * width + num; // num appears in this row
+					break;
+				case 2:
+					c = 2 * cells + col * width + num; // num appears in this column
+					break;
+				default:
+					c = 3 * cells + box * width + num; // num appears in this sector
+					break;
+				}
+				c++; // Header indices start at 1
+
+				// Append the node to the bottom of its column
+				header[node] = c;
+				rowOf[node] = r;
+				up[node] = up[c];
+				down[node] = c;
+				down[up[c]] = node;
+				up[c] = node;
+				size[c]++;
+
+				// Link it into the ring of its row
+				left[node] = k == 0 ? node : node - 1;
+				right[node] = first;
+				if (k > 0) {
+					right[node - 1] = node;
+					left[first] = node;
+				}
+				node++;
+			}
+		}
+	}
+
+	@Override
+	public String getName() {
+		return Solvers.DANCING_LINKS;
+	}
+
+	@Override
+	public boolean solve(int[] puzzle) {
+		if (countSolutions(puzzle, 1, scratch) == 0) {
+			return false;
+		}
+		System.arraycopy(scratch, 0, puzzle, 0, cells);
+		return true;
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit) {
+		return countSolutions(puzzle, limit, null);
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit, int[] solution) {
+		if (puzzle.length != cells) {
+			throw new IllegalArgumentException("Expected " + cells + " squares but got " + puzzle.length);
+		}
+		solutions = 0;
+		this.limit = limit;
+		firstSolution = solution;
+
+		// Cover the clues; a clue whose constraint is already covered is a contradiction
+		int clues = 0;
+		boolean consistent = true;
+		for (int pos = 0; pos < cells && consistent; pos++) {
+			int num = puzzle[pos];
+			if (num == 0) {
+				continue;
+			}
+			if (num < 0 || num > width) {
+				uncoverClues(clues);
+				throw new IllegalArgumentException("Square " + pos + " holds " + num + ", expected 0-" + width);
+			}
+			int first = rowStart[pos * width + num - 1];
+			int j = first;
+			do {
+				if (covered[header[j]]) {
+					consistent = false;
+				}
+				j = right[j];
+			} while (j != first);
+			if (consistent) {
+				j = first;
+				do {
+					cover(header[j]);
+					covered[header[j]] = true;
+					j = right[j];
+				} while (j != first);
+				clueRows[clues++] = first;
+			}
+		}
+
+		if (consistent) {
+			if (solution != null) {
+				System.arraycopy(puzzle, 0, solution, 0, cells);
+			}
+			search(0);
+		}
+		uncoverClues(clues);
+		firstSolution = null;
+		return solutions;
+	}
+
+	private void search(int depth) {
+		if (right[ROOT] == ROOT) {
+			if (solutions == 0 && firstSolution != null) {
+				for (int k = 0; k < depth; k++) {
+					int r = rowOf[chosen[k]];
+					firstSolution[r / width] = r % width + 1;
+				}
+			}
+			solutions++;
+			return;
+		}
+
+		// Branch on the column with the fewest rows left
+		int c = right[ROOT];
+		for (int h = right[c]; h != ROOT; h = right[h]) {
+			if (size[h] < size[c]) {
+				c = h;
+			}
+		}
+		if (size[c] == 0) {
+			return;
+		}
+
+		cover(c);
+		for (int r = down[c]; r != c && solutions < limit; r = down[r]) {
+			chosen[depth] = r;
+			for (int j = right[r]; j != r; j = right[j]) {
+				cover(header[j]);
+			}
+			search(depth + 1);
+			for (int j = left[r]; j != r; j = left[j]) {
+				uncover(header[j]);
+			}
+		}
+		uncover(c);
+	}
+
+	private void uncoverClues(int clues) {
+		// Undo the clue covers in the reverse order they were made
+		for (int k = clues - 1; k >= 0; k--) {
+			int first = clueRows[k];
+			int j = left[first];
+			while (true) {
+				uncover(header[j]);
+				covered[header[j]] = false;
+				if (j == first) {
+					break;
+				}
+				j = left[j];
+			}
+		}
+	}
+
+	private void cover(int c) {
+		right[left[c]] = right[c];
+		left[right[c]] = left[c];
+		for (int i = down[c]; i != c; i = down[i]) {
+			for (int j = right[i]; j != i; j = right[j]) {
+				up[down[j]] = up[j];
+				down[up[j]] = down[j];
+				size[header[j]]--;
+			}
+		}
+	}
+
+	private void uncover(int c) {
+		for (int i = up[c]; i != c; i = up[i]) {
+			for (int j = left[i]; j != i; j = left[j]) {
+				size[header[j]]++;
+				up[down[j]] = j;
+				down[up[j]] = j;
+			}
+		}
+		right[left[c]] = c;
+		left[right[c]] = c;
+	}
+}
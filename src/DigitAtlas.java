@@ -0,0 +1,69 @@
+package com.sudoku.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+public class DigitAtlas {
+
+	/**
+	 * Packs the ten digit images (0.png - 9.png) side by side into a single texture
+	 * when the game starts, and hands out a TextureRegion for each digit. Tiles
+	 * point their sprites at these regions instead of loading their own textures, so
+	 * the number of textures stays the same no matter how many boards are played or
+	 * solved. load() and dispose() must be called on the GL thread.
+	 */
+
+	private static final int DIGITS = 10;
+
+	private static Texture texture;
+	private static TextureRegion[] regions;
+
+	static void load() {
+		if (texture != null) {
+			return;
+		}
+		Pixmap[] digits = new Pixmap[DIGITS];
+		int width = 0, height = 0;
+		for (int n = 0; n < DIGITS; n++) {
+			digits[n] = new Pixmap(Gdx.files.internal(n + ".png"));
+			width += digits[n].getWidth();
+			height = Math.max(height, digits[n].getHeight());
+		}
+
+		// Copy every digit into one strip, then upload the strip as one texture
+		Pixmap strip = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+		strip.setBlending(Pixmap.Blending.None);
+		int[] xPos = new int[DIGITS];
+		int x = 0;
+		for (int n = 0; n < DIGITS; n++) {
+			strip.drawPixmap(digits[n], x, 0);
+			xPos[n] = x;
+			x += digits[n].getWidth();
+		}
+		texture = new Texture(strip);
+
+		regions = new TextureRegion[DIGITS];
+		for (int n = 0; n < DIGITS; n++) {
+			regions[n] = new TextureRegion(texture, xPos[n], 0, digits[n].getWidth(), digits[n].getHeight());
+			digits[n].dispose();
+		}
+		strip.dispose();
+	}
+
+	static TextureRegion get(int digit) {
+		if (texture == null) {
+			load();
+		}
+		return regions[digit];
+	}
+
+	static void dispose() {
+		if (texture != null) {
+			texture.dispose();
+			texture = null;
+			regions = null;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.sudoku.game;
+
+public class FingerprintSet {
+
+	/**
+	 * A set of 64-bit fingerprints (see GridCanonicalizer) for rejecting puzzles
+	 * that have been seen before. The fingerprints are kept in one long[] with
+	 * open addressing and linear probing, so adding or looking one up is a couple
+	 * of array reads and nothing is boxed. The table doubles once it is three
+	 * quarters full, so a set costs 11 to 21 bytes per fingerprint. 0 can't mark an
+	 * empty slot and be a fingerprint at once, so it is tracked on its own. Two
+	 * different puzzles share a fingerprint with a chance of about one in 2^64 per
+	 * pair, which is taken as never. Not thread-safe.
+	 */
+
+	private static final int INITIAL_CAPACITY = 1024;
+	// The largest power of two an array can hold
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private long[] table;
+	private int mask;
+	private int size;
+	private boolean hasZero;
+
+	public FingerprintSet() {
+		this(0);
+	}
+
+	public FingerprintSet(int expected) {
+		// Sized so that expected fingerprints fit without growing
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < MAX_CAPACITY && capacity / 4 * 3 < expected) {
+			capacity <<= 1;
+		}
+		table = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	public boolean add(long fingerprint) {
+		// Returns false if the fingerprint was already in the set
+		if (fingerprint == 0) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			size++;
+			return true;
+		}
+		int slot = (int) fingerprint & mask;
+		while (table[slot] != 0) {
+			if (table[slot] == fingerprint) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = fingerprint;
+		size++;
+		if (size > table.length / 4 * 3) {
+			grow();
+		}
+		return true;
+	}
+
+	public boolean contains(long fingerprint) {
+		if (fingerprint == 0) {
+			return hasZero;
+		}
+		int slot = (int) fingerprint & mask;
+		while (table[slot] != 0) {
+			if (table[slot] == fingerprint) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length * 2];
+		mask = table.length - 1;
+		for (long fingerprint : old) {
+			if (fingerprint != 0) {
+				int slot = (int) fingerprint & mask;
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = fingerprint;
+			}
+		}
+	}
+}
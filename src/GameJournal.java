@@ -0,0 +1,373 @@
+package com.sudoku.game;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class GameJournal implements Closeable, Flushable {
+
+	/**
+	 * Saves the game in progress so it can be resumed after the game is closed or
+	 * crashes. The save file starts with a snapshot of the game: a HEADER_SIZE byte
+	 * header (board size, difficulty, the puzzle's hardest technique, strikes left
+	 * and time played) and the board packed as
+	 *
+	 * - 1 byte per square: the solution
+	 * - 1 bit per square: the clues (lowest bit first)
+	 * - 1 bit per square: the squares the player has filled (lowest bit first)
+	 * - 1 bit per number per square: the pencil marks, in (width + 7) / 8 bytes
+	 *   per square (lowest bit first)
+	 *
+	 * Every move after that is appended as a MOVE_SIZE byte record (the move, its
+	 * number, the square and the time played so far; filling in every candidate
+	 * is a single AUTO_NOTES move), so saving a move costs 8 bytes however big the
+	 * board is. A CLOCK move only records the time, so that leaving the game
+	 * doesn't lose the time since the last real move. Resuming reads the snapshot and replays the
+	 * moves. Once more than COMPACT_AFTER moves pile up, the next flush writes a new
+	 * snapshot under a temporary name and renames it over the file.
+	 *
+	 * Like ScoreStore, the move methods only change memory and are cheap enough to
+	 * call on the GL thread, and load(), flush() and close() do the file I/O on a
+	 * PersistenceService thread. A move torn by a crash doesn't check out and is
+	 * cut off on the next load.
+	 */
+
+	static final int FILL = 1;
+	static final int NOTE = 2;
+	static final int STRIKE = 3;
+	static final int AUTO_NOTES = 4;
+	static final int CLOCK = 5;
+
+	static final int MAGIC = 0x53444B4A; // "SDKJ"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 16;
+	static final int MOVE_SIZE = 8;
+
+	// Moves the file may hold after its snapshot before a new snapshot is written
+	private static final int COMPACT_AFTER = 512;
+
+	private static final BoardSize[] SIZES = BoardSize.values();
+	private static final difficulty[] DIFFICULTIES = difficulty.values();
+	private static final Technique[] TECHNIQUES = Technique.values();
+
+	private final File file;
+
+	// Guarded by this: the game being played, the moves not yet written, and
+	// whether the next flush has to write a whole snapshot instead
+	private SavedGame game;
+	private boolean started;
+	private ByteBuffer pending = ByteBuffer.allocate(MOVE_SIZE * 64);
+	private boolean snapshotDue;
+	private int moves;
+
+	// Only used by the thread doing the I/O
+	private FileChannel log;
+
+	public GameJournal(File file) {
+		/**
+		 * Creates a journal for the save file at file without reading it; call load()
+		 * (usually on a PersistenceService) to pick up a saved game.
+		 */
+		this.file = file;
+	}
+
+	public synchronized SavedGame getSavedGame() {
+		// The game to resume, or null if there is none (or it hasn't been loaded yet)
+		return started ? null : game;
+	}
+
+	public synchronized void start(SavedGame game) {
+		/**
+		 * Starts saving game, a new one or the one from getSavedGame(). A new game
+		 * replaces the saved one with the next flush.
+		 */
+		started = true;
+		if (game != this.game) {
+			this.game = game;
+			pending.clear();
+			snapshotDue = true;
+		}
+	}
+
+	public synchronized void fill(int cell, int number, int elapsedMillis) {
+		move(FILL, cell, number, elapsedMillis);
+	}
+
+	public synchronized void note(int cell, int note, int elapsedMillis) {
+		move(NOTE, cell, note, elapsedMillis);
+	}
+
+	public synchronized void autoNotes(int elapsedMillis) {
+		move(AUTO_NOTES, 0, 0, elapsedMillis);
+	}
+
+	public synchronized void strike(int cell, int number, int elapsedMillis) {
+		move(STRIKE, cell, number, elapsedMillis);
+	}
+
+	public synchronized void clock(int elapsedMillis) {
+		move(CLOCK, 0, 0, elapsedMillis);
+	}
+
+	public synchronized void finish() {
+		// The game is over, so there is nothing left to resume; the next flush deletes the file
+		started = true;
+		game = null;
+		pending.clear();
+		snapshotDue = true;
+	}
+
+	private void move(int move, int cell, int value, int elapsedMillis) {
+		if (game == null || !game.apply(move, cell, value, elapsedMillis)) {
+			throw new IllegalArgumentException("Can't make move " + move + " " + value + " at square " + cell);
+		}
+		if (pending.remaining() < MOVE_SIZE) {
+			ByteBuffer bigger = ByteBuffer.allocate(pending.capacity() * 2);
+			pending.flip();
+			bigger.put(pending);
+			pending = bigger;
+		}
+		encodeMove(pending, move, cell, value, elapsedMillis);
+	}
+
+	public void load() throws IOException {
+		/**
+		 * Reads the save file, if there is one, and rebuilds the game in it. Does
+		 * nothing if a game was started in the meantime, since that one replaces it.
+		 */
+		if (!file.exists()) {
+			return;
+		}
+		long start = System.nanoTime();
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer in = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+			while (in.hasRemaining() && channel.read(in) >= 0) {
+				// Read the whole file; even a 25x25 game with COMPACT_AFTER moves is a few KB
+			}
+			in.flip();
+			SavedGame saved = decodeSnapshot(in);
+			int replayed = 0;
+			while (in.remaining() >= MOVE_SIZE && decodeMove(in, saved)) {
+				replayed++;
+			}
+			// Cut off a move torn by a crash, so new moves line up behind the last good one
+			if (in.hasRemaining()) {
+				channel.truncate(in.position());
+			}
+
+			synchronized (this) {
+				if (started) {
+					return;
+				}
+				game = saved;
+				moves = replayed;
+			}
+		} finally {
+			channel.close();
+		}
+		log = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		Metrics.time(Metrics.Timer.SAVE_IO, start);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		/**
+		 * Appends the moves made since the last flush with one write and one sync, or
+		 * writes a new snapshot if a game was started or too many moves have piled up.
+		 */
+		ByteBuffer out;
+		boolean snapshot;
+		synchronized (this) {
+			int queued = pending.position() / MOVE_SIZE;
+			if (!snapshotDue && queued == 0) {
+				return;
+			}
+			snapshot = snapshotDue || log == null || moves + queued > COMPACT_AFTER;
+			if (game == null) {
+				out = null;
+			} else if (snapshot) {
+				out = encodeSnapshot(game);
+				moves = 0;
+			} else {
+				pending.flip();
+				out = ByteBuffer.allocate(pending.remaining());
+				out.put(pending);
+				out.flip();
+				moves += queued;
+			}
+			pending.clear();
+			snapshotDue = false;
+		}
+
+		long start = System.nanoTime();
+		if (out == null) {
+			closeLog();
+			Files.deleteIfExists(file.toPath());
+		} else if (snapshot) {
+			closeLog();
+			File temp = new File(file.getPath() + ".tmp");
+			FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			try {
+				while (out.hasRemaining()) {
+					channel.write(out);
+				}
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			log = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} else {
+			while (out.hasRemaining()) {
+				log.write(out);
+			}
+			log.force(false);
+		}
+		Metrics.time(Metrics.Timer.SAVE_IO, start);
+	}
+
+	@Override
+	public void close() throws IOException {
+		// Writes anything still queued first
+		flush();
+		closeLog();
+	}
+
+	private void closeLog() throws IOException {
+		if (log != null) {
+			log.close();
+			log = null;
+		}
+	}
+
+	static ByteBuffer encodeSnapshot(SavedGame game) {
+		Puzzle puzzle = game.getPuzzle();
+		int[] solution = puzzle.getSolution();
+		int[] givens = puzzle.getGivens();
+		int cells = solution.length;
+		int maskBytes = (cells + 7) / 8;
+		int noteBytes = (puzzle.getSize().getWidth() + 7) / 8;
+		ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + cells + 2 * maskBytes + cells * noteBytes);
+		Technique hardest = puzzle.getHardestTechnique();
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.put((byte) puzzle.getSize().ordinal());
+		out.put((byte) puzzle.getDifficulty().ordinal());
+		out.put((byte) (hardest == null ? 0 : hardest.ordinal() + 1));
+		out.put((byte) game.getStrikesLeft());
+		out.putInt(game.getElapsedMillis());
+
+		for (int i = 0; i < cells; i++) {
+			out.put((byte) solution[i]);
+		}
+		int masks = out.position();
+		for (int b = 0; b < maskBytes; b++) {
+			int clues = 0, filled = 0;
+			for (int k = 0; k < 8 && b * 8 + k < cells; k++) {
+				if (givens[b * 8 + k] != 0) {
+					clues |= 1 << k;
+				}
+				if (game.getNumber(b * 8 + k) != 0) {
+					filled |= 1 << k;
+				}
+			}
+			out.put(masks + b, (byte) clues);
+			out.put(masks + maskBytes + b, (byte) filled);
+		}
+		out.position(masks + 2 * maskBytes);
+		for (int i = 0; i < cells; i++) {
+			int notes = game.getNotes(i);
+			for (int b = 0; b < noteBytes; b++) {
+				out.put((byte) (notes >>> (8 * b)));
+			}
+		}
+		out.flip();
+		return out;
+	}
+
+	static SavedGame decodeSnapshot(ByteBuffer in) throws IOException {
+		// Reads the snapshot at the buffer's position, leaving it at the first move
+		if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+			throw new IOException("Not a saved game");
+		}
+		int version = in.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported saved game version " + version);
+		}
+		int s = in.get(), d = in.get(), technique = in.get(), strikesLeft = in.get();
+		int elapsedMillis = in.getInt();
+		if (s < 0 || s >= SIZES.length || d < 0 || d >= DIFFICULTIES.length || technique < 0
+				|| technique > TECHNIQUES.length || strikesLeft < 0 || strikesLeft > SavedGame.STRIKES) {
+			throw new IOException("Corrupt saved game header");
+		}
+		int cells = SIZES[s].getCells();
+		int maskBytes = (cells + 7) / 8;
+		int noteBytes = (SIZES[s].getWidth() + 7) / 8;
+		if (in.remaining() < cells + 2 * maskBytes + cells * noteBytes) {
+			throw new IOException("Saved game is cut short");
+		}
+
+		int[] solution = new int[cells];
+		int[] givens = new int[cells];
+		for (int i = 0; i < cells; i++) {
+			solution[i] = in.get();
+		}
+		int masks = in.position();
+		for (int i = 0; i < cells; i++) {
+			if ((in.get(masks + (i >> 3)) & (1 << (i & 7))) != 0) {
+				givens[i] = solution[i];
+			}
+		}
+		SavedGame game = new SavedGame(new Puzzle(givens, solution, DIFFICULTIES[d],
+				technique == 0 ? null : TECHNIQUES[technique - 1]));
+		for (int i = 0; i < cells; i++) {
+			if ((in.get(masks + maskBytes + (i >> 3)) & (1 << (i & 7))) != 0) {
+				game.apply(FILL, i, solution[i], elapsedMillis);
+			}
+		}
+		// After the fills, which would otherwise clear marks around them
+		in.position(masks + 2 * maskBytes);
+		int allDigits = SIZES[s].getAllDigits();
+		for (int i = 0; i < cells; i++) {
+			int notes = 0;
+			for (int b = 0; b < noteBytes; b++) {
+				notes |= (in.get() & 0xFF) << (8 * b);
+			}
+			game.setNotes(i, notes & allDigits);
+		}
+		game.restore(strikesLeft, elapsedMillis);
+		return game;
+	}
+
+	private static void encodeMove(ByteBuffer out, int move, int cell, int value, int elapsedMillis) {
+		out.put((byte) move);
+		out.put((byte) value);
+		out.putShort((short) cell);
+		out.putInt(elapsedMillis);
+	}
+
+	private static boolean decodeMove(ByteBuffer in, SavedGame game) {
+		// Replays the move at the buffer's position, or returns false (leaving the
+		// position alone) if it doesn't check out. Time only ever goes forward, so
+		// a move from before the last one is garbage too.
+		int start = in.position();
+		int elapsedMillis = in.getInt(start + 4);
+		if (elapsedMillis < game.getElapsedMillis()
+				|| !game.apply(in.get(start), in.getShort(start + 2), in.get(start + 1), elapsedMillis)) {
+			return false;
+		}
+		in.position(start + MOVE_SIZE);
+		return true;
+	}
+}
@@ -1,11 +1,6 @@
 package com.sudoku.game;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.LinkedList;
-import java.util.Scanner;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
@@ -13,10 +8,13 @@ import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Rectangle;
 import com.sudoku.game.Sudoku.difficulty;
 
@@ -25,302 +23,418 @@ public class GameScreen implements Screen, InputProcessor {
 	private Sudoku game;
 	private SpriteBatch batch;
 
-	private static final int WIDTH = 9;
-	private static final float TILE_WIDTH = 64;
+	// board.png is 582 pixels across with 2 pixel lines; larger boards are drawn to
+	// fit in the same space
+	private static final int BOARD_PIXELS = 582;
+	private static final int LINE_WIDTH = 2;
+	private static final float BOARD_X = 209;
+	private static final float BOARD_Y = 109;
+	// How many of the solver's steps are shown per second; set with -Dsudoku.solveSpeed
+	private static final int SOLVE_STEPS_PER_SECOND = Integer.getInteger("sudoku.solveSpeed", 240);
+
+	private final BoardSize size;
+	private final int width;
+	private final int boxSize;
+	private final int tileWidth;
 	private difficulty dif;
 
 	private Sprite boardSprite;
+	// The board and its clues, which don't change during a game, drawn once
+	private FrameBuffer boardLayer;
+	private TextureRegion boardLayerRegion;
 	private Sprite selectOverlay;
+	// Marks a square whose note clashes with a number in its row, column or sector
+	private Sprite conflictOverlay;
+	private Sprite hintOverlay;
+	private Texture strikeTexture;
 	private LinkedList<Sprite> strikeSprites;
 
 	private int[] selectedTile = { -1, -1 };
 	private int emptyTiles;
-	private int strikesLeft = 3;
+	private int strikesLeft = SavedGame.STRIKES;
+	// The game as the GameJournal saves it; set up front when a game is resumed
+	private SavedGame saved;
+
+	// On boards wider than 9, the digits typed so far of a number above 9
+	private int typed;
+	private boolean typedNote;
 
 	private BitmapFont resetPrompt;
 	private String resetString;
 	private boolean gameFinished = false;
 	private BitmapFont highScoresDisplay;
-	private String[] highScores;
 	private StringBuilder highScoresText;
+	// The numbers that could still go in the selected square
+	private BitmapFont candidatesDisplay;
+	private StringBuilder candidatesText;
+	// The Metrics overlay, toggled with F3
+	private BitmapFont metricsDisplay;
+	private StringBuilder metricsText;
+	private boolean showMetrics;
+	// The hint shown since H was last pressed, until a square is filled
+	private Hint hint;
+	private String hintText = "";
 
 	private long startTime;
 
 	private Tile[][] tiles;
-
-	public GameScreen(Sudoku game, SpriteBatch batch, difficulty dif) {
+	private BoardModel board;
+	// Null on boards larger than 9x9, which LogicalSolver doesn't know
+	private HintEngine hints;
+	// The solve being animated after Space, or null
+	private AnimatedSolve solve;
+	private float solveSteps;
+
+	public GameScreen(Sudoku game, SpriteBatch batch, SavedGame saved) {
+		// Resumes a saved game, or starts a new one from a SavedGame of just a puzzle
 		this.game = game;
 		this.batch = batch;
-		this.dif = dif;
+		this.saved = saved;
+		size = saved.getPuzzle().getSize();
+		dif = saved.getPuzzle().getDifficulty();
+		width = size.getWidth();
+		boxSize = size.getBoxSize();
+		// 64 pixels on a 9x9 board, 35 on 16x16 and 22 on 25x25
+		tileWidth = (BOARD_PIXELS - LINE_WIDTH * boxSize) / width;
 	}
 
 	@Override
 	public void show() {
-		boardSprite = new Sprite(new Texture("board.png"));
+		if (size == BoardSize.NINE) {
+			boardSprite = new Sprite(new Texture("board.png"));
+		} else {
+			boardSprite = new Sprite(createBoardTexture());
+		}
 		// Center the board sprite vertically and horizontally
-		boardSprite.setPosition(209, 109);
+		float boardPixels = LINE_WIDTH * boxSize + width * tileWidth;
+		boardSprite.setPosition(BOARD_X + (BOARD_PIXELS - boardPixels) / 2,
+				BOARD_Y + (BOARD_PIXELS - boardPixels) / 2);
 
 		selectOverlay = new Sprite(new Texture("selectOverlay.png"));
+		selectOverlay.setSize(tileWidth - 4, tileWidth - 4);
 		selectOverlay.setAlpha(0);
+		conflictOverlay = new Sprite(selectOverlay.getTexture());
+		conflictOverlay.setSize(tileWidth - 4, tileWidth - 4);
+		conflictOverlay.setColor(1, 0, 0, 0.5f);
+		hintOverlay = new Sprite(selectOverlay.getTexture());
+		hintOverlay.setSize(tileWidth - 4, tileWidth - 4);
+		hintOverlay.setColor(0, 1, 0, 0.5f);
+		strikeTexture = new Texture("strike.png");
 		strikeSprites = new LinkedList<Sprite>();
 		resetPrompt = new BitmapFont();
 		resetPrompt.setColor(Color.RED);
 		resetString = "";
 		highScoresDisplay = new BitmapFont();
 		highScoresDisplay.setColor(Color.LIME);
-		highScores = new String[10];
 		highScoresText = new StringBuilder();
-		highScoresText.append("High Scores:\n\n");
-
+		candidatesDisplay = new BitmapFont();
+		candidatesDisplay.setColor(Color.DARK_GRAY);
+		candidatesText = new StringBuilder();
+		metricsDisplay = new BitmapFont();
+		metricsDisplay.setColor(Color.BLUE);
+		metricsText = new StringBuilder();
+
+		long setupStart = System.nanoTime();
 		setupBoard();
-		try {
-			readHighScores();
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		}
+		Metrics.time(Metrics.Timer.PUZZLE_SETUP, setupStart);
+		createBoardLayer();
+		showHighScores();
 		Gdx.input.setInputProcessor(this);
-		startTime = System.currentTimeMillis();
+		// A resumed game carries on from the time it was saved at
+		startTime = System.currentTimeMillis() - saved.getElapsedMillis();
+		Gdx.graphics.requestRendering();
 	}
 
-	private void setupBoard() {
+	private Texture createBoardTexture() {
 		/**
-		 * Starts by calling pickClueSquares to determine which squares will be used as
-		 * clues. Then generateBoard from SudokuGenerator is called to create an int[][]
-		 * representaion of a valid sudoku board, where every number is in the range
-		 * 1-9. Lastly, a tile object is created for each square and added to the tiles
-		 * matrix
+		 * Only the 9x9 board has an image, so larger boards are drawn the same way:
+		 * white squares on black, with the gaps between sectors twice as wide as the
+		 * ones between squares.
 		 */
+		int pixels = LINE_WIDTH * boxSize + width * tileWidth;
+		Pixmap grid = new Pixmap(pixels, pixels, Pixmap.Format.RGBA8888);
+		grid.setColor(Color.BLACK);
+		grid.fill();
+		grid.setColor(Color.WHITE);
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < width; j++) {
+				int x = LINE_WIDTH + tileWidth * j + (j / boxSize) * LINE_WIDTH;
+				int y = LINE_WIDTH + tileWidth * i + (i / boxSize) * LINE_WIDTH;
+				grid.fillRectangle(x, y, tileWidth - LINE_WIDTH, tileWidth - LINE_WIDTH);
+			}
+		}
+		Texture texture = new Texture(grid);
+		grid.dispose();
+		return texture;
+	}
 
-		// Determine which squares will be used as clues
-		boolean[][] showAtStart = pickClueSquares();
+	private void createBoardLayer() {
+		/**
+		 * Rendering is on demand, but every frame that is drawn would still draw the
+		 * board and a sprite per digit of every clue, although they never change
+		 * during a game. So they are drawn once into a FrameBuffer the size of the
+		 * screen, and drawSprites() draws that as a single texture, followed by only
+		 * the things that can change: the player's numbers and notes, strikes, the
+		 * select overlay and the text.
+		 */
+		boardLayer = new FrameBuffer(Pixmap.Format.RGBA8888, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(),
+				false);
+		boardLayer.begin();
+		Gdx.gl.glClearColor(1, 1, 1, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.begin();
+		boardSprite.draw(batch);
+		for (Tile[] tileRow : tiles) {
+			for (Tile tile : tileRow) {
+				if (tile.isClue()) {
+					tile.draw(batch);
+				}
+			}
+		}
+		batch.end();
+		boardLayer.end();
+		// Frame buffer textures are stored upside down
+		boardLayerRegion = new TextureRegion(boardLayer.getColorBufferTexture());
+		boardLayerRegion.flip(false, true);
+	}
+
+	private void setupBoard() {
+		/**
+		 * The game's puzzle, which the title screen got from the PuzzlePool, has
+		 * exactly one solution. It holds the completed board, where every number is in
+		 * the range 1 to width, and the clues that are shown at the start. A tile
+		 * object is created for each square and added to the tiles matrix. A resumed
+		 * game's filled squares, notes and strikes are put back on the board. Every
+		 * number shown goes into the BoardModel too, which the notes are then checked
+		 * against.
+		 */
 
-		// Get a complete board with every number filled
-		int[][] board = SudokuGenerator.generateBoard();
+		game.journal.start(saved);
+		Puzzle puzzle = saved.getPuzzle();
+		int[] solution = puzzle.getSolution();
+		int[] givens = puzzle.getGivens();
 
 		// Create the actual board that will be used for the game
-		tiles = new Tile[WIDTH][WIDTH];
+		tiles = new Tile[width][width];
+		board = new BoardModel(size);
 		emptyTiles = 0;
-		for (int i = 0; i < WIDTH; i++) {
-			for (int j = 0; j < WIDTH; j++) {
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < width; j++) {
 
 				// Get the position for the number sprite
-				float xPos = (boardSprite.getX() + 2) + (TILE_WIDTH * j) + ((j / 3) * 2);
-				float yPos = (Gdx.graphics.getHeight() - boardSprite.getY() - TILE_WIDTH) - (TILE_WIDTH * i)
-						- ((i / 3) * 2);
+				float xPos = (boardSprite.getX() + LINE_WIDTH) + (tileWidth * j) + ((j / boxSize) * LINE_WIDTH);
+				float yPos = (Gdx.graphics.getHeight() - boardSprite.getY() - tileWidth) - (tileWidth * i)
+						- ((i / boxSize) * LINE_WIDTH);
 
 				// Create a tileRegion which will be used to check when this tile is clicked
-				Rectangle tileRegion = new Rectangle(xPos, yPos, TILE_WIDTH, TILE_WIDTH);
+				Rectangle tileRegion = new Rectangle(xPos, yPos, tileWidth, tileWidth);
 
 				// Create the tile and add it to the board
-				Tile tile = new Tile(tileRegion, i, j, board[i][j], showAtStart[i][j]);
-				if (!showAtStart[i][j]) {
+				boolean isClue = givens[i * width + j] != 0;
+				Tile tile = new Tile(tileRegion, i, j, solution[i * width + j], isClue, boxSize);
+				if (saved.getNumber(i * width + j) != 0) {
+					tile.showNumber();
+				} else if (!isClue) {
 					emptyTiles++;
 				}
+				if (tile.isFilled()) {
+					board.place(i * width + j, tile.getNumber());
+				}
 				tiles[i][j] = tile;
 			}
 		}
-	}
-
-	private boolean[][] pickClueSquares() {
-		/**
-		 * First, the number of clues is generated randomly from a range that
-		 * corresponds to the selected difficulty. Next, an int[] of length 2 is created
-		 * for each square's position on the sudoku board, and a LinkedList named coords
-		 * stores these positions. Then, a 9x9 boolean matrix named showAtStart is
-		 * created to represent whether each square is or is not a clue. Remove numClues
-		 * coordinate pairs from the coords list and set that position in the boolean
-		 * matrix to true
-		 * 
-		 * @return showAtStart
-		 */
-
-		// Get the number of clues based on the difficulty
-		int numClues = 0;
-		switch (dif) {
-		case EASY: // 35-40
-			numClues = (int) (Math.random() * 6) + 35;
-			break;
-		case INTERMEDIATE: // 30-34
-			numClues = (int) (Math.random() * 5) + 30;
-			break;
-		case ADVANCED: // 25-29
-			numClues = (int) (Math.random() * 5) + 25;
-			break;
-		case EXPERT: // 20-24
-			numClues = (int) (Math.random() * 5) + 20;
-			break;
-		default:
-			break;
+		for (int cell = 0; cell < size.getCells(); cell++) {
+			Tile tile = tiles[cell / width][cell % width];
+			tile.setNotes(saved.getNotes(cell));
+			checkNotes(cell, tile);
 		}
-
-		// Add all of the square's positions to a list
-		LinkedList<int[]> coords = new LinkedList<int[]>();
-		for (int r = 0; r < WIDTH; r++) {
-			for (int c = 0; c < WIDTH; c++) {
-				int[] coord = { r, c };
-				coords.add(coord);
+		if (size == BoardSize.NINE) {
+			int[] shown = new int[size.getCells()];
+			for (int cell = 0; cell < shown.length; cell++) {
+				shown[cell] = board.get(cell);
 			}
+			hints = new HintEngine(shown);
 		}
-
-		// Every value starts as false
-		boolean[][] showAtStart = new boolean[WIDTH][WIDTH];
-
-		// For the number of clues, randomly select an index from coords and make that
-		// square a clue
-		for (; numClues > 0; numClues--) {
-			int selectIndex = (int) (Math.random() * coords.size());
-			int r = coords.get(selectIndex)[0];
-			int c = coords.get(selectIndex)[1];
-			showAtStart[r][c] = true;
-			coords.remove(selectIndex);
+		while (strikesLeft > saved.getStrikesLeft()) {
+			strikesLeft--;
+			addStrikeSprite();
 		}
-		return showAtStart;
 	}
 
 	@Override
 	public void render(float delta) {
+		long frameStart = System.nanoTime();
+		if (solve != null) {
+			animateSolve(delta);
+		}
 		Gdx.gl.glClearColor(1, 1, 1, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 		drawSprites();
+		Metrics.time(Metrics.Timer.FRAME, frameStart);
 	}
 
 	private void onGameEnd(boolean solvedByPlayer) {
 		resetString += "Press Enter to return to the title screen.\nPress Escape to exit the game.";
 		gameFinished = true;
-		int elapsedTimeSeconds = (int) ((System.currentTimeMillis() - startTime) / 1000);
+		hint = null;
+		hintText = "";
+		int elapsedTimeSeconds = elapsedMillis() / 1000;
+
+		writeHighScores(elapsedTimeSeconds, solvedByPlayer);
+		// A finished game can't be resumed
+		game.journal.finish();
+		game.persistence.schedule(game.journal);
+	}
 
-		try {
-			writeHighScores(elapsedTimeSeconds, solvedByPlayer);
-		} catch (IOException e) {
-			e.printStackTrace();
+	private int elapsedMillis() {
+		return (int) (System.currentTimeMillis() - startTime);
+	}
+
+	private void saveClock() {
+		// Moves save the time played, but the time since the last one would be lost
+		if (!gameFinished) {
+			game.journal.clock(elapsedMillis());
+			game.persistence.schedule(game.journal);
 		}
 	}
 
-	private boolean backtrackSolve(boolean show) {
+	private void startSolve() {
 		/**
-		 * First, set every unfilled square's number to 0 to ensure the integrity of the
-		 * backtrackSolve algorithm. Then, obtain the coordinates of an empty square; if
-		 * no empty square is found, the board is solved. Check the numbers 1-9; when
-		 * you find a number that can occupy this blank square (w.r.t the current state
-		 * of the board), update the square's number and recursively call this function.
-		 * If false is returned up the recursion stack, set this number back to 0 and
-		 * try another number from 1-9. This function will finish and return true when
-		 * recursive call cannot find an empty square; it will then return true all the
-		 * way up the stack.
-		 * 
-		 * @param show: whether to hide the squares that were solved for after solving
+		 * Copies the clues and the squares the player has already filled into a flat
+		 * int[] (every other square is 0) and solves it with an AnimatedSolve, on a
+		 * worker thread. render() then shows the numbers the solver tries and takes
+		 * back, SOLVE_STEPS_PER_SECOND at a time, and the window keeps drawing
+		 * throughout. Until the solve is over, Escape cancels it, Space again skips to
+		 * the solved board, and all other input is ignored.
 		 */
 
-		setEmptyToZero();
-		int[] empty = findEmpty();
-		if (empty == null) {
-			return true;
-		}
-		int row = empty[0], col = empty[1];
-
-		for (int i = 1; i <= WIDTH; i++) {
-			if (valid(row, col, i)) {
-				tiles[row][col].setNumber(i);
-				tiles[row][col].showNumber();
-				if (!show) {
-					tiles[row][col].setHideAfterSolve(true);
-				}
-				if (backtrackSolve(show)) {
-					// If any tiles were flagged to not be shown after solving, hide them
-					for (Tile[] tileRow : tiles) {
-						for (Tile tile : tileRow) {
-							tile.hideAfterSolve();
-						}
-					}
-					return true;
-				}
-				tiles[row][col].setNumber(0);
+		int[] grid = new int[size.getCells()];
+		for (int r = 0; r < width; r++) {
+			for (int c = 0; c < width; c++) {
+				Tile tile = tiles[r][c];
+				grid[r * width + c] = tile.isFilled() ? tile.getNumber() : 0;
 			}
 		}
-		return false;
+		selectedTile[0] = -1;
+		selectedTile[1] = -1;
+		selectOverlay.setAlpha(0);
+		typed = 0;
+		solveSteps = 0;
+		solve = new AnimatedSolve(size, grid);
+		solve.start();
 	}
 
-	private void setEmptyToZero() {
-		for (Tile[] row : tiles) {
-			for (Tile tile : row) {
-				if (!tile.isFilled()) {
-					tile.setNumber(0);
-				}
+	private void animateSolve(float delta) {
+		// Show the steps the time since the last frame allows, and ask for another
+		// frame until the solve is over
+		solveSteps += delta * SOLVE_STEPS_PER_SECOND;
+		if (solve.isSkipping()) {
+			// Nobody is watching any more, so throw away what was queued
+			while (solve.poll() != -1) {
 			}
+			solveSteps = 0;
+		}
+		while (solveSteps >= 1) {
+			int step = solve.poll();
+			if (step == -1) {
+				solveSteps = 0; // The solver is behind; don't save up steps for later
+				break;
+			}
+			solveSteps--;
+			int cell = AnimatedSolve.cellOf(step);
+			tiles[cell / width][cell % width].setTestNum(AnimatedSolve.numberOf(step));
+		}
+		if (solve.isFinished()) {
+			finishSolve();
+		} else {
+			Gdx.graphics.requestRendering();
 		}
 	}
 
-	private boolean valid(int row, int col, int num) {
+	private void finishSolve() {
 		/**
-		 * Returns whether num can occupy the square located in the sudoku board at
-		 * (row, col)
+		 * Every unfilled tile gets its solved number, and is revealed. Generated
+		 * puzzles always have a solution, but if the solver found none the tiles are
+		 * just put back.
 		 */
-		// Check row
-		for (int c = 0; c < WIDTH; c++) {
-			Tile tile = tiles[row][c];
-			if (c != col && tile.getNumber() != 0) {
-				if (tile.getNumber() == num) {
-					return false;
-				}
-			}
-		}
-		// Check column
-		for (int r = 0; r < WIDTH; r++) {
-			Tile tile = tiles[r][col];
-			if (r != row && tile.getNumber() != 0) {
-				if (tile.getNumber() == num) {
-					return false;
-				}
-			}
-		}
-		// Check 3x3 sectors
-		int rowStart = (row / 3) * 3, rowEnd = rowStart + 3;
-		int colStart = (col / 3) * 3, colEnd = colStart + 3;
-		for (int r = rowStart; r < rowEnd; r++) {
-			for (int c = colStart; c < colEnd; c++) {
+		AnimatedSolve finished = solve;
+		solve = null;
+		if (!finished.isSolved()) {
+			clearTestNums();
+			return;
+		}
+		int[] grid = finished.getSolution();
+		for (int r = 0; r < width; r++) {
+			for (int c = 0; c < width; c++) {
 				Tile tile = tiles[r][c];
-				if ((r != row || c != col) && tile.getNumber() != 0) {
-					if (tile.getNumber() == num) {
-						return false;
-					}
+				if (!tile.isFilled()) {
+					tile.setTestNum(0);
+					tile.setNumber(grid[r * width + c]);
+					tile.showNumber();
 				}
 			}
 		}
-		return true;
+		resetString += "The puzzle is solved.\n";
+		onGameEnd(false); // false ensures the solve time will not be added to the high scores file
 	}
 
-	private int[] findEmpty() {
-		/**
-		 * Traverses the board row by row, and returns the position as an int[] of the
-		 * first empty square. Returns null if no empty square is found.
-		 */
-		for (int r = 0; r < WIDTH; r++) {
-			for (int c = 0; c < WIDTH; c++) {
-				if (tiles[r][c].getNumber() == 0) {
-					int[] returnVal = { r, c };
-					return returnVal;
+	private void cancelSolve() {
+		solve.cancel();
+		solve = null;
+		clearTestNums();
+	}
+
+	private void clearTestNums() {
+		for (Tile[] tileRow : tiles) {
+			for (Tile tile : tileRow) {
+				if (!tile.isFilled()) {
+					tile.setTestNum(0);
 				}
 			}
 		}
-		return null;
 	}
 
 	public void drawSprites() {
 		batch.begin();
+		// The layer is opaque and covers the screen, so it is copied rather than blended
+		batch.disableBlending();
+		batch.draw(boardLayerRegion, 0, 0);
+		batch.enableBlending();
 		for (Sprite strike : strikeSprites) {
 			strike.draw(batch);
 		}
-		boardSprite.draw(batch);
 		if (tiles != null) {
 			for (Tile[] tileRow : tiles) {
 				for (Tile tile : tileRow) {
+					if (tile.isClue()) {
+						continue;
+					}
+					if (!tile.isFilled() && tile.hasNoteConflict()) {
+						conflictOverlay.setPosition(tile.getX() + 1, tile.getY() + 1);
+						conflictOverlay.draw(batch);
+					}
 					tile.draw(batch);
 				}
 			}
 		}
+		if (hint != null) {
+			Tile tile = tiles[hint.getCell() / width][hint.getCell() % width];
+			hintOverlay.setPosition(tile.getX() + 1, tile.getY() + 1);
+			hintOverlay.draw(batch);
+		}
 		selectOverlay.draw(batch);
+		if (selectedTile[0] != -1) {
+			candidatesDisplay.draw(batch, candidatesText, BOARD_X, BOARD_Y - 20);
+		}
+		candidatesDisplay.draw(batch, hintText, BOARD_X, BOARD_Y - 40);
 		resetPrompt.draw(batch, resetString, 0, Gdx.graphics.getHeight() - 30, Gdx.graphics.getWidth(), 1, false);
 		highScoresDisplay.draw(batch, highScoresText.toString(), 850, Gdx.graphics.getHeight() - 30, 80, -1, false);
+		if (showMetrics) {
+			// Rebuilt every frame; frames are only drawn on input, so this costs nothing otherwise
+			metricsText.setLength(0);
+			Metrics.describe(metricsText);
+			metricsDisplay.draw(batch, metricsText, 10, Gdx.graphics.getHeight() - 60);
+		}
 		batch.end();
 	}
 
@@ -332,14 +446,24 @@ public class GameScreen implements Screen, InputProcessor {
 		 * just got their last strike or filled the last empty square, the game is over.
 		 */
 		Tile checkTile = tiles[selectedTile[0]][selectedTile[1]];
+		int cell = selectedTile[0] * width + selectedTile[1];
 		selectOverlay.setAlpha(0);
 		selectedTile[0] = -1;
 		selectedTile[1] = -1;
 		if (checkTile.getNumber() == inputNum) {
 			checkTile.showNumber();
-			checkTile.eraseNote();
+			checkTile.eraseNotes();
 			emptyTiles--;
+			board.place(cell, inputNum);
+			updatePeerNotes(cell, inputNum);
+			if (hints != null) {
+				hints.fill(cell, inputNum);
+			}
+			hint = null;
+			hintText = "";
+			game.journal.fill(cell, inputNum, elapsedMillis());
 		} else {
+			game.journal.strike(cell, inputNum, elapsedMillis());
 			strikesLeft--;
 			addStrikeSprite();
 			if (strikesLeft == 0) {
@@ -352,6 +476,7 @@ public class GameScreen implements Screen, InputProcessor {
 			onGameEnd(true); // true ensures the solve time will be compared to the previous high scores and
 								// added to the file if appropriate
 		}
+		game.persistence.schedule(game.journal);
 	}
 
 	public void setNote(int note) {
@@ -359,19 +484,91 @@ public class GameScreen implements Screen, InputProcessor {
 		 * Called when the player tries to add a note number to an empty square. First,
 		 * hide the select overlay. Then, check if the tile is empty (it will be since
 		 * this method is only called if that is the case; this check is just to be
-		 * safe). Set the note to the input number.
+		 * safe). Then toggle the mark for the input number.
 		 */
 		Tile tile = tiles[selectedTile[0]][selectedTile[1]];
+		int cell = selectedTile[0] * width + selectedTile[1];
 		selectOverlay.setAlpha(0);
 		selectedTile[0] = -1;
 		selectedTile[1] = -1;
 		if (!tile.isFilled()) {
-			tile.setNote(note);
+			tile.toggleNote(note);
+			checkNotes(cell, tile);
+			game.journal.note(cell, note, elapsedMillis());
+			game.persistence.schedule(game.journal);
+		}
+	}
+
+	private void updatePeerNotes(int cell, int number) {
+		// number was just placed in cell, so it can't go in any square sharing its row,
+		// column or sector any more; those are the only marks that change
+		for (int peer : board.getPeers(cell)) {
+			Tile tile = tiles[peer / width][peer % width];
+			if (!tile.isFilled() && tile.getNotes() != 0) {
+				tile.removeNote(number);
+				checkNotes(peer, tile);
+			}
+		}
+	}
+
+	private void checkNotes(int cell, Tile tile) {
+		// A mark clashes if the number is already in the square's row, column or sector
+		tile.setNoteConflict((tile.getNotes() & ~board.getCandidates(cell)) != 0);
+	}
+
+	private void fillCandidates() {
+		// Marks every empty square with every number that can still go there
+		for (int cell = 0; cell < size.getCells(); cell++) {
+			Tile tile = tiles[cell / width][cell % width];
+			if (!tile.isFilled()) {
+				tile.setNotes(board.getCandidates(cell));
+				tile.setNoteConflict(false);
+			}
+		}
+		game.journal.autoNotes(elapsedMillis());
+		game.persistence.schedule(game.journal);
+	}
+
+	private void showHint() {
+		/**
+		 * Shades the next square that can be filled without guessing and says what
+		 * goes there and why. The player still has to fill it in.
+		 */
+		if (hints == null) {
+			hintText = "Hints are only available on 9x9 boards";
+			return;
+		}
+		hint = hints.next();
+		if (hint == null) {
+			hintText = "No hint: the next step needs more than the techniques the game knows";
+			return;
+		}
+		int cell = hint.getCell();
+		hintText = "Hint: row " + (cell / width + 1) + ", column " + (cell % width + 1) + " is a "
+				+ hint.getNumber() + " (" + hint.getTechnique().getDisplayName();
+		if (hint.getNeeded() != hint.getTechnique()) {
+			hintText += ", after " + hint.getNeeded().getDisplayName();
+		}
+		hintText += ")";
+	}
+
+	private void showCandidates(int cell) {
+		candidatesText.setLength(0);
+		int candidates = board.getCandidates(cell);
+		if (candidates == 0) {
+			candidatesText.append("No number fits this square");
+			return;
+		}
+		candidatesText.append("Possible:");
+		for (int number = 1; number <= width; number++) {
+			if ((candidates & (1 << (number - 1))) != 0) {
+				candidatesText.append(' ').append(number);
+			}
 		}
 	}
 
 	public void addStrikeSprite() {
-		Sprite strike = new Sprite(new Texture("strike.png"));
+		Sprite strike = new Sprite(strikeTexture);
 		if (strikeSprites.size() == 0) {
 			strike.setPosition(16, Gdx.graphics.getHeight() - strike.getHeight() - 16);
 			strikeSprites.add(strike);
@@ -388,7 +585,7 @@ public class GameScreen implements Screen, InputProcessor {
 
 	@Override
 	public void pause() {
-
+		saveClock();
 	}
 
 	@Override
@@ -398,18 +595,52 @@ public class GameScreen implements Screen, InputProcessor {
 
 	@Override
 	public void hide() {
-
+		// Also called when the game quits, before the journal is closed
+		saveClock();
 	}
 
 	@Override
 	public void dispose() {
+		if (solve != null) {
+			solve.cancel();
+		}
 		resetPrompt.dispose();
 		highScoresDisplay.dispose();
+		candidatesDisplay.dispose();
+		metricsDisplay.dispose();
+		boardSprite.getTexture().dispose();
+		boardLayer.dispose();
+		selectOverlay.getTexture().dispose();
+		strikeTexture.dispose();
 	}
 
 	@Override
 	public boolean keyDown(int keycode) {
 
+		// Rendering is on demand, so any key the game reacts to needs a new frame
+		Gdx.graphics.requestRendering();
+
+		// The Metrics overlay and dump work at any time, even during a solve
+		if (keycode == Keys.F3) {
+			showMetrics = !showMetrics;
+			return false;
+		}
+		if (keycode == Keys.F4) {
+			game.dumpMetrics();
+			return false;
+		}
+
+		// While a solve is animated, Escape cancels it, Space skips to the end, and
+		// every other key waits
+		if (solve != null) {
+			if (keycode == Keys.ESCAPE) {
+				cancelSolve();
+			} else if (keycode == Keys.SPACE) {
+				solve.skip();
+			}
+			return false;
+		}
+
 		// First, check input that is not related to inputting numbers or notes
 
 		// Return to TitleScreen
@@ -418,12 +649,21 @@ public class GameScreen implements Screen, InputProcessor {
 			game.setScreen(new TitleScreen(game, batch));
 		}
 
+		// Fill in every pencil mark
+		if (keycode == Keys.A && !gameFinished) {
+			fillCandidates();
+			return false;
+		}
+
+		// Show a hint
+		if (keycode == Keys.H && !gameFinished) {
+			showHint();
+			return false;
+		}
+
 		// Solve the board
 		if (keycode == Keys.SPACE && !gameFinished) {
-			if (backtrackSolve(true)) {
-				resetString += "The puzzle is solved.\n";
-				onGameEnd(false); // false ensures the solve time will not be added to the high scores file
-			}
+			startSolve();
 			return false;
 		}
 
@@ -437,6 +677,7 @@ public class GameScreen implements Screen, InputProcessor {
 				selectedTile[0] = -1;
 				selectedTile[1] = -1;
 				selectOverlay.setAlpha(0);
+				typed = 0;
 			}
 		}
 
@@ -446,11 +687,26 @@ public class GameScreen implements Screen, InputProcessor {
 			return false;
 		}
 
+		// Enter finishes a number whose first digit could also start a two-digit one
+		if (keycode == Keys.ENTER && typed != 0) {
+			int number = typed;
+			typed = 0;
+			if (typedNote) {
+				setNote(number);
+			} else {
+				checkTile(number);
+			}
+			return false;
+		}
+
 		// Then, check input that is related to inputting numbers or notes
 
 		int input = -1;
 		int note = -1;
 		switch (keycode) {
+		case Keys.NUM_0:
+			input = 0;
+			break;
 		case Keys.NUM_1:
 			input = 1;
 			break;
@@ -478,6 +734,9 @@ public class GameScreen implements Screen, InputProcessor {
 		case Keys.NUM_9:
 			input = 9;
 			break;
+		case Keys.NUMPAD_0:
+			note = 0;
+			break;
 		case Keys.NUMPAD_1:
 			note = 1;
 			break;
@@ -508,6 +767,12 @@ public class GameScreen implements Screen, InputProcessor {
 		default:
 			break;
 		}
+		if (input != -1) {
+			input = typeDigit(input, false);
+		}
+		if (note != -1) {
+			note = typeDigit(note, true);
+		}
 		if (input != -1) {
 			checkTile(input);
 		}
@@ -517,6 +782,29 @@ public class GameScreen implements Screen, InputProcessor {
 		return false;
 	}
 
+	private int typeDigit(int digit, boolean note) {
+		/**
+		 * Numbers above 9 on the larger boards are typed one digit at a time. Returns
+		 * the number once no further digit could extend it, or -1 while one still
+		 * could (Enter then finishes it) or if the digits don't make a number on this
+		 * board. On a 9x9 board every digit 1-9 is returned straight away.
+		 */
+		if (typedNote != note) {
+			typed = 0; // Switching between numbers and notes starts over
+		}
+		typedNote = note;
+		int number = typed * 10 + digit;
+		typed = 0;
+		if (number == 0 || number > width) {
+			return -1;
+		}
+		if (number * 10 > width) {
+			return number;
+		}
+		typed = number;
+		return -1;
+	}
+
 	@Override
 	public boolean keyUp(int keycode) {
 		return false;
@@ -530,13 +818,18 @@ public class GameScreen implements Screen, InputProcessor {
 	@Override
 	public boolean touchDown(int screenX, int screenY, int pointer, int button) {
 		float mouseX = screenX, mouseY = Gdx.graphics.getHeight() - screenY;
-		System.out.println(mouseX + "-" + mouseY);
+		Gdx.graphics.requestRendering();
+		if (solve != null) {
+			return false;
+		}
 		// No need to do anything after a mouse click if the game is already finished
 		if (!gameFinished) {
 			for (Tile[] tileRow : tiles) {
 				for (Tile tile : tileRow) {
 					if (tile.getRegion().contains(mouseX, mouseY) && !tile.isFilled()) {
 						selectedTile = tile.getPos();
+						showCandidates(selectedTile[0] * width + selectedTile[1]);
+						typed = 0;
 						selectOverlay.setPosition(tile.getX() + 1, tile.getY() + 1);
 						selectOverlay.setAlpha(1);
 						return false;
@@ -547,6 +840,7 @@ public class GameScreen implements Screen, InputProcessor {
 			selectedTile[0] = -1;
 			selectedTile[1] = -1;
 			selectOverlay.setAlpha(0);
+			typed = 0;
 		}
 		return false;
 	}
@@ -571,84 +865,30 @@ public class GameScreen implements Screen, InputProcessor {
 		return false;
 	}
 
-	private void readHighScores() throws FileNotFoundException {
-		// Each highscore timestamp is of the form hh:mm:ss
-
-		// Read through the highscores file and store each as a string in the String[]
-		// highScores
-		File read = new File("filepath");
-		Scanner sc = new Scanner(read);
-		int c = 0;
-		while (sc.hasNextLine() && c < 10) {
-			highScores[c] = sc.nextLine();
-			highScoresText.append(highScores[c] + "\n");
-			c++;
+	private void showHighScores() {
+		// The leaderboard for this board size and difficulty, fastest first
+		highScoresText.setLength(0);
+		highScoresText.append("High Scores:\n\n");
+		for (int time : game.scores.getTimes(size, dif)) {
+			highScoresText.append(createTimestamp(time));
 		}
-		sc.close();
 	}
 
-	private void writeHighScores(int elapsedTimeSeconds, boolean solvedByPlayer) throws IOException {
+	private void writeHighScores(int elapsedTimeSeconds, boolean solvedByPlayer) {
 
 		// If the player didn't solve the board themselves, no changes need to be made
 
 		if (solvedByPlayer) {
-			// Each highscore timestamp is of the form hh:mm:ss
-
-			// Add this game's time to high scores if it is in the top 10
-			String[] newHighScores = addToHighScores(elapsedTimeSeconds);
-
-			FileWriter write = new FileWriter("filepath");
-			for (String line : newHighScores) {
-				if (line != null) {
-					write.write(line);
-				}
-			}
-			write.close();
-		}
-	}
-
-	private String[] addToHighScores(int elapsedTimeSeconds) {
-
-		LinkedList<Integer> timesInSeconds = new LinkedList<Integer>();
-		for (String str : highScores) {
-			if (str != null) {
-				int hours = Integer.parseInt(str.substring(0, 2));
-				int minutes = Integer.parseInt(str.substring(3, 5));
-				int seconds = Integer.parseInt(str.substring(6));
-				int timeInSeconds = seconds + (minutes * 60) + (hours * 3600);
-				timesInSeconds.add(timeInSeconds);
-			}
-		}
-		boolean inserted = false;
-		for (int i = 0; i < timesInSeconds.size(); i++) {
-			if (elapsedTimeSeconds < timesInSeconds.get(i)) {
-				timesInSeconds.add(i, elapsedTimeSeconds);
-				inserted = true;
-				break;
+			// Only a time that makes the top 10 is stored, and it is written to disk on
+			// the persistence thread
+			if (game.scores.record(size, dif, elapsedTimeSeconds)) {
+				game.persistence.schedule(game.scores);
+				showHighScores();
 			}
 		}
-		// If this game's time is longer than every past high score, add it to the end
-		if (!inserted) {
-			timesInSeconds.addLast(elapsedTimeSeconds);
-		}
-		// If there are more than 10 times in this list, remove the last one (the
-		// longest time)
-		if (timesInSeconds.size() > 10) {
-			timesInSeconds.removeLast();
-		}
-
-		String[] newHighScores = new String[10];
-		for (int i = 0; i < timesInSeconds.size(); i++) {
-			// Construct the timestamp from each high score
-
-			int timeInSeconds = timesInSeconds.get(i);
-			String timestamp = createTimestamp(timeInSeconds);
-			newHighScores[i] = timestamp;
-		}
-		return newHighScores;
 	}
 
-	private String createTimestamp(int timeInSeconds) {
+	static String createTimestamp(int timeInSeconds) {
 
 		// Make hours string
 		int hours = timeInSeconds / 3600;
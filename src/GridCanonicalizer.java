@@ -0,0 +1,448 @@
+package com.sudoku.game;
+
+public class GridCanonicalizer {
+
+	/**
+	 * Maps a completed 9x9 board to its canonical form: the lexicographically
+	 * smallest board, read row by row, that any GridTransform can turn it into. Two
+	 * boards are the same board in disguise exactly when their canonical forms are
+	 * equal, and fingerprint() boils the form down to 64 bits for a FingerprintSet.
+	 *
+	 * The numbers of the canonical board are always numbered in the order they
+	 * first appear, so its first row is always 1 to 9 and the search is about the
+	 * second row. For each orientation and each pair of rows from one band that
+	 * could come first, the columns are placed one position at a time. Every
+	 * number in the second row is the position of some column in the first, so
+	 * placing a column forces where the column it points to has to go for the
+	 * number to be as small as it can be, and only the placements that give the
+	 * smallest number are followed. Once the columns are placed, the remaining rows
+	 * are picked the same way, following only the smallest candidates. Anything
+	 * that comes out larger than the best board found so far is dropped on the spot.
+	 *
+	 * A puzzle is keyed by its solution: its canonical form is the canonical board
+	 * with only the clues kept, using whichever of the transforms that give the
+	 * canonical board (there is more than one only for boards with symmetries of
+	 * their own) leaves the smallest clue pattern. Nothing is allocated per call;
+	 * an instance must not be shared between threads.
+	 */
+
+	private static final int WIDTH = 9;
+	private static final int BOX_SIZE = 3;
+	private static final int CELLS = WIDTH * WIDTH;
+	// The rows of each band as a bitmask
+	private static final int BAND_ROWS = (1 << BOX_SIZE) - 1;
+
+	// The board (and the clues of a puzzle, 0 elsewhere) as given and transposed
+	private final int[][] views = new int[2][CELLS];
+	private final int[][] clueViews = new int[2][CELLS];
+	private int[] view;
+	private int[] clueView;
+	private boolean puzzle;
+
+	// The smallest board found so far, the smallest clue pattern on it and the
+	// transform that gives them
+	private final int[] best = new int[CELLS];
+	private final int[] bestClues = new int[CELLS];
+	private boolean found;
+	// Goes up whenever best changes, so a level of the search can tell its comparison is stale
+	private int improvements;
+	private boolean bestTranspose;
+	private final int[] bestRows = new int[WIDTH];
+	private final int[] bestCols = new int[WIDTH];
+	private final int[] bestLabels = new int[WIDTH + 1];
+
+	// The board being built: its rows so far and the rows of the view they came from
+	private final int[] current = new int[CELLS];
+	private final int[] trialClues = new int[CELLS];
+	private final int[] rows = new int[WIDTH];
+	private int usedRows;
+	// The label of every number, which is one more than the position of its column in the first row
+	private final int[] labels = new int[WIDTH + 1];
+
+	// The columns being placed: the column at each position (-1 for none yet), the
+	// position of each column, and which stack each block of three positions holds
+	private final int[] cols = new int[WIDTH];
+	private final int[] pos = new int[WIDTH];
+	private final int[] blockStack = new int[BOX_SIZE];
+	private final int[] stackBlock = new int[BOX_SIZE];
+	// target[c] is the column of the first row holding the number the second row has in column c
+	private final int[] target = new int[WIDTH];
+	private final int[] colOf = new int[WIDTH + 1];
+	private final int[][] tiedCols = new int[WIDTH][WIDTH];
+
+	// Per row of the board: the smallest candidate row, a candidate being tried,
+	// and the rows of the view that tie for smallest
+	private final int[][] smallest = new int[WIDTH][WIDTH];
+	private final int[] trial = new int[WIDTH];
+	private final int[][] tied = new int[WIDTH][WIDTH];
+
+	private final GridTransform transform = new GridTransform(BoardSize.NINE);
+
+	public void canonicalize(int[] grid, int[] out) {
+		/**
+		 * Writes the canonical form of grid, which has to be a completed board, into
+		 * out. Afterwards getTransform() holds a transform that turns grid into it.
+		 */
+		puzzle = false;
+		search(grid);
+		System.arraycopy(best, 0, out, 0, CELLS);
+	}
+
+	public void canonicalize(Puzzle puzzle, int[] out) {
+		// Writes the canonical form of a 9x9 puzzle into out, with 0 for every square that isn't a clue
+		search(puzzle);
+		System.arraycopy(bestClues, 0, out, 0, CELLS);
+	}
+
+	public long fingerprint(int[] grid) {
+		// A 64-bit hash of the canonical form of a completed board
+		puzzle = false;
+		search(grid);
+		return hash(best);
+	}
+
+	public long fingerprint(Puzzle puzzle) {
+		// A 64-bit hash of the canonical form of a 9x9 puzzle
+		search(puzzle);
+		return hash(bestClues);
+	}
+
+	public GridTransform getTransform() {
+		// The transform from the last board or puzzle canonicalized to its canonical form
+		return transform;
+	}
+
+	private void search(Puzzle puzzle) {
+		int[] givens = puzzle.getGivens();
+		if (givens.length != CELLS) {
+			throw new IllegalArgumentException("Canonical forms are only available on 9x9 boards");
+		}
+		for (int r = 0; r < WIDTH; r++) {
+			for (int c = 0; c < WIDTH; c++) {
+				clueViews[0][r * WIDTH + c] = givens[r * WIDTH + c];
+				clueViews[1][c * WIDTH + r] = givens[r * WIDTH + c];
+			}
+		}
+		this.puzzle = true;
+		search(puzzle.getSolution());
+	}
+
+	static long hash(int[] canonical) {
+		// 16 squares of 4 bits to a word, each mixed in with the SplittableRandom finalizer
+		long h = 0;
+		long word = 0;
+		for (int i = 0; i < canonical.length; i++) {
+			word = word << 4 | canonical[i];
+			if ((i & 15) == 15 || i == canonical.length - 1) {
+				h = mix(h * 0x9E3779B97F4A7C15L + word);
+				word = 0;
+			}
+		}
+		return h;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private void search(int[] grid) {
+		if (grid.length != CELLS) {
+			throw new IllegalArgumentException("Canonical forms are only available on 9x9 boards");
+		}
+		checkComplete(grid);
+		for (int r = 0; r < WIDTH; r++) {
+			for (int c = 0; c < WIDTH; c++) {
+				views[0][r * WIDTH + c] = grid[r * WIDTH + c];
+				views[1][c * WIDTH + r] = grid[r * WIDTH + c];
+			}
+		}
+
+		found = false;
+		for (int j = 0; j < WIDTH; j++) {
+			current[j] = j + 1;
+		}
+		for (int t = 0; t < 2; t++) {
+			view = views[t];
+			clueView = clueViews[t];
+			for (int first = 0; first < WIDTH; first++) {
+				int bandStart = first / BOX_SIZE * BOX_SIZE;
+				for (int second = bandStart; second < bandStart + BOX_SIZE; second++) {
+					if (second != first) {
+						searchColumns(first, second);
+					}
+				}
+			}
+		}
+		transform.set(bestTranspose, bestRows, bestCols, bestLabels);
+	}
+
+	private static void checkComplete(int[] grid) {
+		// Every row, column and sector has to hold each number once
+		for (int unit = 0; unit < WIDTH; unit++) {
+			int rowSeen = 0, colSeen = 0, boxSeen = 0;
+			int boxRow = unit / BOX_SIZE * BOX_SIZE, boxCol = unit % BOX_SIZE * BOX_SIZE;
+			for (int i = 0; i < WIDTH; i++) {
+				rowSeen |= bit(grid[unit * WIDTH + i]);
+				colSeen |= bit(grid[i * WIDTH + unit]);
+				boxSeen |= bit(grid[(boxRow + i / BOX_SIZE) * WIDTH + boxCol + i % BOX_SIZE]);
+			}
+			if ((rowSeen & colSeen & boxSeen) != (1 << WIDTH) - 1) {
+				throw new IllegalArgumentException("Only a completed, valid board has a canonical form");
+			}
+		}
+	}
+
+	private static int bit(int number) {
+		return number >= 1 && number <= WIDTH ? 1 << (number - 1) : 0;
+	}
+
+	private void searchColumns(int first, int second) {
+		// The board starts with rows first and second of the view; find the column orders that fit
+		for (int i = 0; i < WIDTH; i++) {
+			cols[i] = -1;
+			pos[i] = -1;
+		}
+		for (int b = 0; b < BOX_SIZE; b++) {
+			blockStack[b] = -1;
+			stackBlock[b] = -1;
+		}
+		for (int c = 0; c < WIDTH; c++) {
+			colOf[view[first * WIDTH + c]] = c;
+		}
+		for (int c = 0; c < WIDTH; c++) {
+			target[c] = colOf[view[second * WIDTH + c]];
+		}
+		rows[0] = first;
+		rows[1] = second;
+		usedRows = 1 << first | 1 << second;
+		placeColumns(0, !found);
+	}
+
+	private void placeColumns(int j, boolean less) {
+		/**
+		 * Settles position j of the second row. Its number is one more than the
+		 * position of the column that the column at j targets, so that column goes in
+		 * the first free place it is allowed to.
+		 */
+		if (j == WIDTH) {
+			for (int c = 0; c < WIDTH; c++) {
+				labels[view[rows[0] * WIDTH + c]] = pos[c] + 1;
+			}
+			search(2, less);
+			return;
+		}
+
+		int[] ties = tiedCols[j];
+		int tieCount;
+		int value;
+		if (cols[j] >= 0) {
+			// Already placed as the target of an earlier column
+			ties[0] = cols[j];
+			tieCount = 1;
+			value = targetSlot(cols[j], j) + 1;
+		} else {
+			tieCount = 0;
+			value = WIDTH + 1;
+			int block = j / BOX_SIZE;
+			for (int c = 0; c < WIDTH; c++) {
+				int stack = c / BOX_SIZE;
+				if (pos[c] >= 0 || (blockStack[block] >= 0 ? blockStack[block] != stack : stackBlock[stack] >= 0)) {
+					continue; // Placed already, or from the wrong stack for this block
+				}
+				boolean bound = place(c, j);
+				int v = targetSlot(c, j) + 1;
+				unplace(c, bound);
+				if (v < value) {
+					value = v;
+					tieCount = 0;
+				}
+				if (v == value) {
+					ties[tieCount++] = c;
+				}
+			}
+		}
+
+		if (!less) {
+			int order = Integer.compare(value, best[WIDTH + j]);
+			if (order > 0) {
+				return;
+			}
+			less = order < 0;
+		}
+		current[WIDTH + j] = value;
+		for (int t = 0; t < tieCount; t++) {
+			int c = ties[t];
+			boolean placed = cols[j] < 0;
+			boolean bound = placed && place(c, j);
+			int to = target[c];
+			boolean targetPlaced = pos[to] < 0;
+			boolean targetBound = targetPlaced && place(to, value - 1);
+			int before = improvements;
+			placeColumns(j + 1, less);
+			if (targetPlaced) {
+				unplace(to, targetBound);
+			}
+			if (placed) {
+				unplace(c, bound);
+			}
+			if (improvements != before) {
+				// best now starts with the same numbers as this branch
+				less = false;
+			}
+		}
+	}
+
+	private int targetSlot(int c, int j) {
+		// Where the column c targets is, or the first free position after j it may go in
+		int to = target[c];
+		if (pos[to] >= 0) {
+			return pos[to];
+		}
+		int stack = to / BOX_SIZE;
+		for (int p = j + 1; p < WIDTH; p++) {
+			int bound = blockStack[p / BOX_SIZE];
+			if (cols[p] < 0 && (bound == stack || (bound < 0 && stackBlock[stack] < 0))) {
+				return p;
+			}
+		}
+		throw new IllegalStateException("No place left for column " + to);
+	}
+
+	private boolean place(int c, int p) {
+		// Returns whether this tied the block of p to the stack of c
+		cols[p] = c;
+		pos[c] = p;
+		int block = p / BOX_SIZE;
+		if (blockStack[block] >= 0) {
+			return false;
+		}
+		blockStack[block] = c / BOX_SIZE;
+		stackBlock[c / BOX_SIZE] = block;
+		return true;
+	}
+
+	private void unplace(int c, boolean bound) {
+		int p = pos[c];
+		cols[p] = -1;
+		pos[c] = -1;
+		if (bound) {
+			stackBlock[blockStack[p / BOX_SIZE]] = -1;
+			blockStack[p / BOX_SIZE] = -1;
+		}
+	}
+
+	private void search(int k, boolean less) {
+		/**
+		 * Picks row k of the board, once the first two rows and the columns are
+		 * settled. less means the rows picked so far already make the board smaller
+		 * than best, so nothing needs comparing against it.
+		 */
+		if (k == WIDTH) {
+			if (less) {
+				System.arraycopy(current, 0, best, 0, CELLS);
+				found = true;
+				improvements++;
+				if (puzzle) {
+					mapClues(bestClues);
+				}
+				keepTransform();
+			} else if (puzzle) {
+				// The same board again, so the clues may come out smaller this way
+				mapClues(trialClues);
+				if (compare(trialClues, bestClues, 0, CELLS) < 0) {
+					System.arraycopy(trialClues, 0, bestClues, 0, CELLS);
+					keepTransform();
+				}
+			}
+			return;
+		}
+
+		// The first row of a band can come from any band not used yet; the others
+		// have to come from the same band as the row above
+		int options;
+		if (k % BOX_SIZE == 0) {
+			options = 0;
+			for (int band = 0; band < BOX_SIZE; band++) {
+				int bandRows = BAND_ROWS << (band * BOX_SIZE);
+				if ((usedRows & bandRows) == 0) {
+					options |= bandRows;
+				}
+			}
+		} else {
+			options = (BAND_ROWS << (rows[k - 1] / BOX_SIZE * BOX_SIZE)) & ~usedRows;
+		}
+
+		int[] min = smallest[k];
+		int[] ties = tied[k];
+		int tieCount = 0;
+		for (; options != 0; options &= options - 1) {
+			int r = Integer.numberOfTrailingZeros(options);
+			int[] into = tieCount == 0 ? min : trial;
+			int base = r * WIDTH;
+			for (int j = 0; j < WIDTH; j++) {
+				into[j] = labels[view[base + cols[j]]];
+			}
+			int order = tieCount == 0 ? -1 : compare(trial, min, 0, WIDTH);
+			if (order < 0) {
+				if (into == trial) {
+					System.arraycopy(trial, 0, min, 0, WIDTH);
+				}
+				ties[0] = r;
+				tieCount = 1;
+			} else if (order == 0) {
+				ties[tieCount++] = r;
+			}
+		}
+
+		if (!less) {
+			int order = compare(min, best, k * WIDTH, WIDTH);
+			if (order > 0) {
+				return;
+			}
+			less = order < 0;
+		}
+
+		System.arraycopy(min, 0, current, k * WIDTH, WIDTH);
+		for (int t = 0; t < tieCount; t++) {
+			int r = ties[t];
+			rows[k] = r;
+			usedRows |= 1 << r;
+			int before = improvements;
+			search(k + 1, less);
+			usedRows &= ~(1 << r);
+			if (improvements != before) {
+				// best now starts with the same rows as this branch
+				less = false;
+			}
+		}
+	}
+
+	private void mapClues(int[] out) {
+		// The board being built, with only the squares that are clues in the puzzle
+		for (int i = 0; i < WIDTH; i++) {
+			int base = rows[i] * WIDTH;
+			for (int j = 0; j < WIDTH; j++) {
+				out[i * WIDTH + j] = clueView[base + cols[j]] != 0 ? current[i * WIDTH + j] : 0;
+			}
+		}
+	}
+
+	private void keepTransform() {
+		bestTranspose = view == views[1];
+		System.arraycopy(rows, 0, bestRows, 0, WIDTH);
+		System.arraycopy(cols, 0, bestCols, 0, WIDTH);
+		System.arraycopy(labels, 0, bestLabels, 0, WIDTH + 1);
+	}
+
+	private static int compare(int[] a, int[] b, int from, int length) {
+		// Compares a[0, length) with b[from, from + length)
+		for (int j = 0; j < length; j++) {
+			if (a[j] != b[from + j]) {
+				return a[j] < b[from + j] ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+}
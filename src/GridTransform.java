@@ -0,0 +1,115 @@
+package com.sudoku.game;
+
+import java.util.SplittableRandom;
+
+public class GridTransform {
+
+	/**
+	 * One symmetry of a board: an optional transposition, then an order for the
+	 * rows and one for the columns, then a relabelling of the numbers. Rows only
+	 * move within their band and bands only move as a whole, and the same goes for
+	 * columns and stacks, so a transform turns any valid board or puzzle into
+	 * another valid one with the same number of solutions. Rotating the board is a
+	 * transposition followed by reversing the columns. Boards are flat, row-major
+	 * int[]s as everywhere else, and 0 (an empty square) always stays 0.
+	 */
+
+	private final BoardSize size;
+	private final int width;
+	private boolean transpose;
+	// rowOrder[i] is the row of the (transposed) board that becomes row i; colOrder likewise
+	private final int[] rowOrder;
+	private final int[] colOrder;
+	// digitMap[n] is the number n becomes; digitMap[0] is always 0
+	private final int[] digitMap;
+	// Scratch space for randomize(), so that it doesn't allocate
+	private final int[] bands;
+
+	public GridTransform(BoardSize size) {
+		// Starts out as the identity
+		this.size = size;
+		width = size.getWidth();
+		rowOrder = new int[width];
+		colOrder = new int[width];
+		digitMap = new int[width + 1];
+		bands = new int[size.getBoxSize()];
+		for (int i = 0; i < width; i++) {
+			rowOrder[i] = i;
+			colOrder[i] = i;
+		}
+		for (int n = 0; n <= width; n++) {
+			digitMap[n] = n;
+		}
+	}
+
+	public BoardSize getSize() {
+		return size;
+	}
+
+	public void randomize(SplittableRandom random) {
+		/**
+		 * Picks one of the board's symmetries uniformly at random: whether to
+		 * transpose, the order of the bands and of the rows within each of them, the
+		 * same for stacks and columns, and a permutation of the numbers.
+		 */
+		transpose = random.nextBoolean();
+		shuffleLines(rowOrder, random);
+		shuffleLines(colOrder, random);
+		for (int n = 1; n <= width; n++) {
+			digitMap[n] = n;
+		}
+		for (int n = width; n > 1; n--) {
+			int k = 1 + random.nextInt(n);
+			int temp = digitMap[n];
+			digitMap[n] = digitMap[k];
+			digitMap[k] = temp;
+		}
+	}
+
+	private void shuffleLines(int[] order, SplittableRandom random) {
+		// A random order of the bands (or stacks), then of the lines inside each
+		int boxSize = size.getBoxSize();
+		for (int b = 0; b < boxSize; b++) {
+			bands[b] = b;
+		}
+		shuffle(bands, 0, boxSize, random);
+		for (int b = 0; b < boxSize; b++) {
+			for (int i = 0; i < boxSize; i++) {
+				order[b * boxSize + i] = bands[b] * boxSize + i;
+			}
+			shuffle(order, b * boxSize, boxSize, random);
+		}
+	}
+
+	private static void shuffle(int[] a, int from, int count, SplittableRandom random) {
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = a[from + i];
+			a[from + i] = a[from + j];
+			a[from + j] = temp;
+		}
+	}
+
+	void set(boolean transpose, int[] rowOrder, int[] colOrder, int[] digitMap) {
+		/**
+		 * Used by GridCanonicalizer to hand back the transform it found. The orders
+		 * are trusted to keep rows in their bands and columns in their stacks.
+		 */
+		this.transpose = transpose;
+		System.arraycopy(rowOrder, 0, this.rowOrder, 0, width);
+		System.arraycopy(colOrder, 0, this.colOrder, 0, width);
+		System.arraycopy(digitMap, 0, this.digitMap, 0, width + 1);
+	}
+
+	public void apply(int[] in, int[] out) {
+		// in and out must be different arrays of size.getCells() squares
+		for (int i = 0; i < width; i++) {
+			int row = rowOrder[i];
+			for (int j = 0; j < width; j++) {
+				int col = colOrder[j];
+				int number = transpose ? in[col * width + row] : in[row * width + col];
+				out[i * width + j] = digitMap[number];
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.sudoku.game;
+
+public class Hint {
+
+	/**
+	 * One step of a logical solve: the square it fills, the number that goes there
+	 * and the technique that placed it (a naked or hidden single). needed is the
+	 * hardest technique used since the step before, which may be one that only
+	 * removed candidates, such as an X-Wing that left a single behind.
+	 */
+
+	private final int cell;
+	private final int number;
+	private final Technique technique;
+	private final Technique needed;
+
+	public Hint(int cell, int number, Technique technique, Technique needed) {
+		this.cell = cell;
+		this.number = number;
+		this.technique = technique;
+		this.needed = needed;
+	}
+
+	public int getCell() {
+		return cell;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+	public Technique getTechnique() {
+		return technique;
+	}
+
+	public Technique getNeeded() {
+		return needed;
+	}
+}
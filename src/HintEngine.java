@@ -0,0 +1,92 @@
+package com.sudoku.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HintEngine {
+
+	/**
+	 * Hands out hints for a 9x9 game: the next square that can be filled without
+	 * guessing, and how. The board is solved with LogicalSolver.deduce() once, and
+	 * its steps are kept in order. The player can only fill in right numbers, so
+	 * the first step whose square is still empty always has every square it relies
+	 * on already filled, and is still a valid hint however the player got there.
+	 * Its technique may be out of date, though: a number the player placed in the
+	 * same row, column or sector may have made it simpler. So the engine remembers
+	 * which units the player has filled squares in since the last solve, and only
+	 * solves again when the next hint lies in one of those units, or when the steps
+	 * run out before the board is full. A move that is the next step itself, as when
+	 * the player follows the hint, changes nothing the solve didn't already account
+	 * for, so it doesn't count.
+	 */
+
+	private static final int WIDTH = 9;
+
+	private final BoardSize size = BoardSize.NINE;
+	private final LogicalSolver solver = new LogicalSolver();
+	private final int[] grid;
+	private final List<Hint> steps = new ArrayList<Hint>();
+	private int next;
+	private boolean deduced;
+	// One bit per row (0-8), column (9-17) and sector (18-26) filled in since the last solve
+	private int touchedUnits;
+	// How many times deduce() has been run, for tests
+	private int solves;
+
+	public HintEngine(int[] grid) {
+		/**
+		 * grid is the board as the player sees it: the clues and the numbers filled
+		 * in so far, with 0 for every other square.
+		 */
+		if (grid.length != size.getCells()) {
+			throw new IllegalArgumentException("Hints are only available on 9x9 boards");
+		}
+		this.grid = grid.clone();
+	}
+
+	public void fill(int cell, int number) {
+		// The player filled in a square
+		skipFilled();
+		Hint step = next < steps.size() ? steps.get(next) : null;
+		if (step != null && step.getCell() == cell && step.getNumber() == number) {
+			next++;
+		} else {
+			touchedUnits |= unitsOf(cell);
+		}
+		grid[cell] = number;
+	}
+
+	public Hint next() {
+		/**
+		 * Returns the next hint, or null if the board is full or the techniques
+		 * LogicalSolver knows can't fill any more of it.
+		 */
+		skipFilled();
+		boolean stale = next < steps.size() && (touchedUnits & unitsOf(steps.get(next).getCell())) != 0;
+		boolean exhausted = next == steps.size() && (!deduced || touchedUnits != 0);
+		if (stale || exhausted) {
+			steps.clear();
+			next = 0;
+			touchedUnits = 0;
+			deduced = true;
+			solves++;
+			solver.deduce(grid, steps);
+		}
+		return next < steps.size() ? steps.get(next) : null;
+	}
+
+	int getSolves() {
+		return solves;
+	}
+
+	private void skipFilled() {
+		// Steps whose square the player has filled in some other order are done with
+		while (next < steps.size() && grid[steps.get(next).getCell()] != 0) {
+			next++;
+		}
+	}
+
+	private int unitsOf(int cell) {
+		return 1 << size.rowOf[cell] | 1 << (WIDTH + size.colOf[cell]) | 1 << (2 * WIDTH + size.boxOf[cell]);
+	}
+}
@@ -0,0 +1,95 @@
+package com.sudoku.game;
+
+public class LatencyHistogram {
+
+	/**
+	 * Records non-negative values (normally nanoseconds) into log-linear buckets:
+	 * every power of two is split into 16 sub-buckets, so a reported percentile is
+	 * within about 6% of the true value while the whole histogram is a fixed array
+	 * of 960 counters. Recording never allocates. Not thread-safe; record from one
+	 * thread or merge histograms kept per thread.
+	 */
+
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+	private final long[] counts = new long[BUCKETS];
+	private long total;
+	private long max;
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts[bucketOf(value)]++;
+		total++;
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] += other.counts[i];
+		}
+		total += other.total;
+		max = Math.max(max, other.max);
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = 0;
+		}
+		total = 0;
+		max = 0;
+	}
+
+	public long getCount() {
+		return total;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public long percentile(double p) {
+		/**
+		 * Returns the upper edge of the bucket holding the p-th percentile (0-100), or
+		 * 0 if nothing has been recorded.
+		 */
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(p / 100.0 * total);
+		if (rank < 1) {
+			rank = 1;
+		}
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperEdge(i), max);
+			}
+		}
+		return max;
+	}
+
+	private static int bucketOf(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (msb - SUB_BITS)) & (SUB_COUNT - 1);
+		return (msb - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	private static long upperEdge(int bucket) {
+		if (bucket < SUB_COUNT) {
+			return bucket;
+		}
+		int msb = bucket / SUB_COUNT + SUB_BITS - 1;
+		long sub = bucket % SUB_COUNT;
+		return ((SUB_COUNT + sub + 1) << (msb - SUB_BITS)) - 1;
+	}
+}
@@ -0,0 +1,451 @@
+package com.sudoku.game;
+
+import java.util.List;
+
+public class LogicalSolver {
+
+	/**
+	 * Solves a puzzle the way a person would, without guessing. Every empty square
+	 * keeps a 9-bit mask of its remaining candidates. The techniques in Technique
+	 * are tried from simplest to hardest, and after any one of them makes progress
+	 * the solver starts again from naked singles. The hardest technique that was
+	 * needed grades the puzzle, and deduce() records the squares in the order they
+	 * are filled, for HintEngine. Puzzles are flat, row-major int[81]s with 0 for an
+	 * empty square. All of the working arrays are allocated once per solver, so a
+	 * solver instance must not be shared between threads.
+	 */
+
+	private static final int WIDTH = 9;
+	private static final int CELLS = WIDTH * WIDTH;
+	private static final int UNIT_COUNT = 3 * WIDTH;
+
+	// UNITS[u] lists the squares of row u (0-8), column u - 9 (9-17) or sector u - 18
+	// (18-26). PEERS[pos] lists the 20 squares that share a unit with pos.
+	private static final int[][] UNITS = new int[UNIT_COUNT][WIDTH];
+	private static final int[][] PEERS = new int[CELLS][20];
+	private static final int[] BOX_OF = new int[CELLS];
+
+	static {
+		for (int pos = 0; pos < CELLS; pos++) {
+			int row = pos / WIDTH, col = pos % WIDTH, box = (row / 3) * 3 + col / 3;
+			BOX_OF[pos] = box;
+			UNITS[row][col] = pos;
+			UNITS[WIDTH + col][row] = pos;
+			UNITS[2 * WIDTH + box][(row % 3) * 3 + col % 3] = pos;
+		}
+		for (int pos = 0; pos < CELLS; pos++) {
+			int count = 0;
+			for (int other = 0; other < CELLS; other++) {
+				if (other != pos && (other / WIDTH == pos / WIDTH || other % WIDTH == pos % WIDTH
+						|| BOX_OF[other] == BOX_OF[pos])) {
+					PEERS[pos][count++] = other;
+				}
+			}
+		}
+	}
+
+	private final int[] grid = new int[CELLS];
+	private final int[] candidates = new int[CELLS];
+	private final int[] scratch = new int[WIDTH];
+	private int emptyCount;
+	// The squares filled since load(), in order, for deduce()
+	private final int[] placed = new int[CELLS];
+	private int placedCount;
+
+	public Technique grade(int[] puzzle) {
+		/**
+		 * Returns the hardest technique needed to solve puzzle, or null if the
+		 * techniques in Technique are not enough (or the clues contradict each other).
+		 */
+		if (!load(puzzle)) {
+			return null;
+		}
+		Technique hardest = Technique.NAKED_SINGLE;
+		while (emptyCount > 0) {
+			Technique used = step();
+			if (used == null) {
+				return null;
+			}
+			if (used.ordinal() > hardest.ordinal()) {
+				hardest = used;
+			}
+		}
+		return hardest;
+	}
+
+	public boolean deduce(int[] puzzle, List<Hint> steps) {
+		/**
+		 * Solves puzzle like grade() does, adding a Hint to steps for every square it
+		 * fills, in the order it fills them. Returns whether the puzzle was solved;
+		 * if the techniques run out first, steps holds everything found until then.
+		 */
+		if (!load(puzzle)) {
+			return false;
+		}
+		Technique needed = null;
+		while (emptyCount > 0) {
+			int before = placedCount;
+			Technique used = step();
+			if (used == null) {
+				return false;
+			}
+			if (needed == null || used.ordinal() > needed.ordinal()) {
+				needed = used;
+			}
+			for (int i = before; i < placedCount; i++) {
+				int pos = placed[i];
+				steps.add(new Hint(pos, grid[pos], used, needed));
+			}
+			if (placedCount > before) {
+				needed = null;
+			}
+		}
+		return true;
+	}
+
+	private boolean load(int[] puzzle) {
+		if (puzzle.length != CELLS) {
+			throw new IllegalArgumentException("Expected " + CELLS + " squares but got " + puzzle.length);
+		}
+		emptyCount = CELLS;
+		placedCount = 0;
+		for (int pos = 0; pos < CELLS; pos++) {
+			grid[pos] = 0;
+			candidates[pos] = (1 << WIDTH) - 1;
+		}
+		for (int pos = 0; pos < CELLS; pos++) {
+			int num = puzzle[pos];
+			if (num != 0) {
+				if ((candidates[pos] & (1 << (num - 1))) == 0) {
+					return false; // A peer already holds this number
+				}
+				place(pos, num);
+			}
+		}
+		placedCount = 0; // Only squares the techniques fill count
+		return true;
+	}
+
+	private Technique step() {
+		// Apply the simplest technique that makes progress and report which one it was
+		if (nakedSingle()) {
+			return Technique.NAKED_SINGLE;
+		}
+		if (hiddenSingle()) {
+			return Technique.HIDDEN_SINGLE;
+		}
+		if (lockedCandidates()) {
+			return Technique.LOCKED_CANDIDATES;
+		}
+		if (nakedSubset(2)) {
+			return Technique.NAKED_PAIR;
+		}
+		if (hiddenSubset(2)) {
+			return Technique.HIDDEN_PAIR;
+		}
+		if (nakedSubset(3)) {
+			return Technique.NAKED_TRIPLE;
+		}
+		if (hiddenSubset(3)) {
+			return Technique.HIDDEN_TRIPLE;
+		}
+		if (fish(2)) {
+			return Technique.X_WING;
+		}
+		if (fish(3)) {
+			return Technique.SWORDFISH;
+		}
+		return null;
+	}
+
+	private void place(int pos, int num) {
+		grid[pos] = num;
+		candidates[pos] = 0;
+		emptyCount--;
+		placed[placedCount++] = pos;
+		int mask = ~(1 << (num - 1));
+		for (int peer : PEERS[pos]) {
+			candidates[peer] &= mask;
+		}
+	}
+
+	private boolean nakedSingle() {
+		// A square with only one candidate left must hold it
+		boolean progress = false;
+		for (int pos = 0; pos < CELLS; pos++) {
+			int cand = candidates[pos];
+			if (grid[pos] == 0 && Integer.bitCount(cand) == 1) {
+				place(pos, Integer.numberOfTrailingZeros(cand) + 1);
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	private boolean hiddenSingle() {
+		// A number that fits in only one square of a unit must go there
+		for (int[] unit : UNITS) {
+			int once = 0, twice = 0;
+			for (int pos : unit) {
+				twice |= once & candidates[pos];
+				once |= candidates[pos];
+			}
+			int single = once & ~twice;
+			if (single != 0) {
+				int bit = single & -single;
+				for (int pos : unit) {
+					if ((candidates[pos] & bit) != 0) {
+						place(pos, Integer.numberOfTrailingZeros(bit) + 1);
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean lockedCandidates() {
+		/**
+		 * Pointing: if a number's candidates in a sector all lie in one row or column,
+		 * it can be removed from the rest of that line. Claiming: if a number's
+		 * candidates in a row or column all lie in one sector, it can be removed from
+		 * the rest of that sector.
+		 */
+		for (int u = 0; u < UNIT_COUNT; u++) {
+			int[] unit = UNITS[u];
+			for (int n = 0; n < WIDTH; n++) {
+				int bit = 1 << n;
+				int rows = 0, cols = 0, boxes = 0;
+				for (int pos : unit) {
+					if ((candidates[pos] & bit) != 0) {
+						rows |= 1 << (pos / WIDTH);
+						cols |= 1 << (pos % WIDTH);
+						boxes |= 1 << BOX_OF[pos];
+					}
+				}
+				if (rows == 0) {
+					continue;
+				}
+				if (u >= 2 * WIDTH) {
+					if (Integer.bitCount(rows) == 1
+							&& eliminateOutside(UNITS[Integer.numberOfTrailingZeros(rows)], bit, u)) {
+						return true;
+					}
+					if (Integer.bitCount(cols) == 1
+							&& eliminateOutside(UNITS[WIDTH + Integer.numberOfTrailingZeros(cols)], bit, u)) {
+						return true;
+					}
+				} else if (Integer.bitCount(boxes) == 1
+						&& eliminateOutside(UNITS[2 * WIDTH + Integer.numberOfTrailingZeros(boxes)], bit, u)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean eliminateOutside(int[] target, int bit, int keepUnit) {
+		// Remove bit from the squares of target that are not in unit keepUnit
+		boolean progress = false;
+		for (int pos : target) {
+			if ((candidates[pos] & bit) != 0 && !inUnit(pos, keepUnit)) {
+				candidates[pos] &= ~bit;
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	private static boolean inUnit(int pos, int u) {
+		if (u < WIDTH) {
+			return pos / WIDTH == u;
+		}
+		if (u < 2 * WIDTH) {
+			return pos % WIDTH == u - WIDTH;
+		}
+		return BOX_OF[pos] == u - 2 * WIDTH;
+	}
+
+	private boolean nakedSubset(int size) {
+		/**
+		 * If size squares of a unit share exactly size candidates between them, those
+		 * numbers must go in those squares and can be removed from the rest of the
+		 * unit.
+		 */
+		for (int[] unit : UNITS) {
+			int count = 0;
+			for (int i = 0; i < WIDTH; i++) {
+				int bits = Integer.bitCount(candidates[unit[i]]);
+				if (bits >= 2 && bits <= size) {
+					scratch[count++] = i;
+				}
+			}
+			for (int a = 0; a < count; a++) {
+				for (int b = a + 1; b < count; b++) {
+					int pair = candidates[unit[scratch[a]]] | candidates[unit[scratch[b]]];
+					if (size == 2) {
+						if (Integer.bitCount(pair) == 2
+								&& removeFromOthers(unit, pair, (1 << scratch[a]) | (1 << scratch[b]))) {
+							return true;
+						}
+						continue;
+					}
+					for (int c = b + 1; c < count; c++) {
+						int triple = pair | candidates[unit[scratch[c]]];
+						if (Integer.bitCount(triple) == 3 && removeFromOthers(unit, triple,
+								(1 << scratch[a]) | (1 << scratch[b]) | (1 << scratch[c]))) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean removeFromOthers(int[] unit, int digits, int keep) {
+		// Remove digits from every square of unit whose index is not in keep
+		boolean progress = false;
+		for (int i = 0; i < WIDTH; i++) {
+			int pos = unit[i];
+			if ((keep & (1 << i)) == 0 && (candidates[pos] & digits) != 0) {
+				candidates[pos] &= ~digits;
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	private boolean hiddenSubset(int size) {
+		/**
+		 * If size numbers can only go in the same size squares of a unit, those
+		 * squares can't hold anything else.
+		 */
+		for (int[] unit : UNITS) {
+			// scratch[n] = the indices (within the unit) of the squares that can hold n + 1
+			int digits = 0;
+			for (int n = 0; n < WIDTH; n++) {
+				int where = 0;
+				for (int i = 0; i < WIDTH; i++) {
+					if ((candidates[unit[i]] & (1 << n)) != 0) {
+						where |= 1 << i;
+					}
+				}
+				scratch[n] = where;
+				int bits = Integer.bitCount(where);
+				if (bits >= 2 && bits <= size) {
+					digits |= 1 << n;
+				}
+			}
+			for (int a = digits; a != 0; a &= a - 1) {
+				int na = Integer.numberOfTrailingZeros(a);
+				for (int b = a & (a - 1); b != 0; b &= b - 1) {
+					int nb = Integer.numberOfTrailingZeros(b);
+					int squares = scratch[na] | scratch[nb];
+					if (size == 2) {
+						if (Integer.bitCount(squares) == 2
+								&& restrictTo(unit, squares, (1 << na) | (1 << nb))) {
+							return true;
+						}
+						continue;
+					}
+					for (int c = b & (b - 1); c != 0; c &= c - 1) {
+						int nc = Integer.numberOfTrailingZeros(c);
+						int three = squares | scratch[nc];
+						if (Integer.bitCount(three) == 3
+								&& restrictTo(unit, three, (1 << na) | (1 << nb) | (1 << nc))) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean restrictTo(int[] unit, int squares, int digits) {
+		// Remove every candidate except digits from the squares of unit in squares
+		boolean progress = false;
+		for (int i = 0; i < WIDTH; i++) {
+			int pos = unit[i];
+			if ((squares & (1 << i)) != 0 && (candidates[pos] & ~digits) != 0) {
+				candidates[pos] &= digits;
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	private boolean fish(int size) {
+		/**
+		 * X-Wing (size 2) and Swordfish (size 3): if the candidates for a number in
+		 * size rows all lie within the same size columns, the number can be removed
+		 * from those columns in every other row, and the same with rows and columns
+		 * swapped.
+		 */
+		for (int n = 0; n < WIDTH; n++) {
+			int bit = 1 << n;
+			for (int byRow = 0; byRow < 2; byRow++) {
+				// scratch[line] = the cross lines where n is still a candidate
+				int lines = 0;
+				for (int line = 0; line < WIDTH; line++) {
+					int where = 0;
+					for (int cross = 0; cross < WIDTH; cross++) {
+						int pos = byRow == 1 ? line * WIDTH + cross : cross * WIDTH + line;
+						if ((candidates[pos] & bit) != 0) {
+							where |= 1 << cross;
+						}
+					}
+					scratch[line] = where;
+					int bits = Integer.bitCount(where);
+					if (bits >= 2 && bits <= size) {
+						lines |= 1 << line;
+					}
+				}
+				for (int a = lines; a != 0; a &= a - 1) {
+					int la = Integer.numberOfTrailingZeros(a);
+					for (int b = a & (a - 1); b != 0; b &= b - 1) {
+						int lb = Integer.numberOfTrailingZeros(b);
+						int cover = scratch[la] | scratch[lb];
+						if (size == 2) {
+							if (Integer.bitCount(cover) == 2
+									&& eliminateFish(bit, byRow == 1, (1 << la) | (1 << lb), cover)) {
+								return true;
+							}
+							continue;
+						}
+						for (int c = b & (b - 1); c != 0; c &= c - 1) {
+							int lc = Integer.numberOfTrailingZeros(c);
+							int three = cover | scratch[lc];
+							if (Integer.bitCount(three) == 3 && eliminateFish(bit, byRow == 1,
+									(1 << la) | (1 << lb) | (1 << lc), three)) {
+								return true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean eliminateFish(int bit, boolean byRow, int baseLines, int crossLines) {
+		boolean progress = false;
+		for (int line = 0; line < WIDTH; line++) {
+			if ((baseLines & (1 << line)) != 0) {
+				continue;
+			}
+			for (int cross = 0; cross < WIDTH; cross++) {
+				if ((crossLines & (1 << cross)) == 0) {
+					continue;
+				}
+				int pos = byRow ? line * WIDTH + cross : cross * WIDTH + line;
+				if ((candidates[pos] & bit) != 0) {
+					candidates[pos] &= ~bit;
+					progress = true;
+				}
+			}
+		}
+		return progress;
+	}
+}
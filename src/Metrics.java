@@ -0,0 +1,177 @@
+package com.sudoku.game;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+
+	/**
+	 * Counts and times the work the game does so it can be shown in the overlay
+	 * (F3 in a game) or written out to compare runs (F4). Counters are totals since
+	 * the game started; timers are LatencyHistograms of nanoseconds. Anything can
+	 * record from any thread: counters are LongAdders, which give each busy thread a
+	 * cell of its own and only add them up when read, so generator and solver
+	 * threads don't fight over one cache line. Each histogram is locked on its own
+	 * while it is written or read. Code that counts in a loop keeps a local total
+	 * and adds it once at the end, so the hot loops stay free of atomics.
+	 */
+
+	static enum Counter {
+		GENERATOR_SWAPS("generator.swaps"), // Repair swaps made by SudokuGenerator (its countTries)
+		GENERATOR_RESTARTS("generator.restarts"), // Boards SudokuGenerator gave up on and reshuffled
+		PUZZLE_REJECTS("puzzle.rejects"), // Puzzles PuzzleGenerator threw away as too easy
+		SOLVER_NODES("solver.nodes"), // Search steps BitmaskSolver took, in solve and countSolutions
+		SOLVER_BACKTRACKS("solver.backtracks"); // Numbers it tried and took back again
+
+		final String key;
+
+		private Counter(String key) {
+			this.key = key;
+		}
+	}
+
+	static enum Timer {
+		PUZZLE_GENERATION("puzzle.generation"), // PuzzleGenerator.generate, on whatever thread made it
+		PUZZLE_SETUP("puzzle.setup"), // GameScreen.setupBoard, from a puzzle that is already made
+		SCORE_IO("io.scores"), // ScoreStore.load and every flush that wrote something
+		SAVE_IO("io.save"), // GameJournal.load and every flush that wrote something
+		FRAME("frame"); // GameScreen.render
+
+		final String key;
+
+		private Timer(String key) {
+			this.key = key;
+		}
+	}
+
+	private static final Counter[] COUNTERS = Counter.values();
+	private static final Timer[] TIMERS = Timer.values();
+	private static final double[] PERCENTILES = { 50, 90, 99 };
+
+	private static final LongAdder[] counts = new LongAdder[COUNTERS.length];
+	private static final LatencyHistogram[] histograms = new LatencyHistogram[TIMERS.length];
+
+	static {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = new LongAdder();
+		}
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	static void count(Counter counter, long amount) {
+		if (amount != 0) {
+			counts[counter.ordinal()].add(amount);
+		}
+	}
+
+	static long get(Counter counter) {
+		return counts[counter.ordinal()].sum();
+	}
+
+	static void time(Timer timer, long startNanos) {
+		// Records the time from startNanos (a System.nanoTime() reading) until now
+		long nanos = System.nanoTime() - startNanos;
+		LatencyHistogram histogram = histograms[timer.ordinal()];
+		synchronized (histogram) {
+			histogram.record(nanos);
+		}
+	}
+
+	static LatencyHistogram snapshot(Timer timer) {
+		// A copy, so it can be read while other threads keep recording
+		LatencyHistogram histogram = histograms[timer.ordinal()];
+		LatencyHistogram copy = new LatencyHistogram();
+		synchronized (histogram) {
+			copy.add(histogram);
+		}
+		return copy;
+	}
+
+	static void describe(StringBuilder out) {
+		/**
+		 * Appends one line per counter and timer, for the overlay. Times are in
+		 * milliseconds, or microseconds for frames.
+		 */
+		for (Counter counter : COUNTERS) {
+			out.append(counter.key).append(": ").append(get(counter)).append('\n');
+		}
+		for (Timer timer : TIMERS) {
+			LatencyHistogram histogram = snapshot(timer);
+			boolean micros = timer == Timer.FRAME;
+			out.append(timer.key).append(": n=").append(histogram.getCount());
+			for (double p : PERCENTILES) {
+				out.append(" p").append((int) p).append('=');
+				appendTime(out, histogram.percentile(p), micros);
+			}
+			out.append(" max=");
+			appendTime(out, histogram.getMax(), micros);
+			out.append(micros ? " us\n" : " ms\n");
+		}
+	}
+
+	private static void appendTime(StringBuilder out, long nanos, boolean micros) {
+		if (micros) {
+			out.append(nanos / 1000);
+		} else {
+			// Tenths of a millisecond
+			out.append(nanos / 1000000).append('.').append(nanos / 100000 % 10);
+		}
+	}
+
+	static void writeCsv(File file) throws IOException {
+		/**
+		 * One row per counter and timer. Counters only fill in the count column;
+		 * timer columns are nanoseconds.
+		 */
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write("name,count,p50,p90,p99,max");
+			writer.newLine();
+			for (Counter counter : COUNTERS) {
+				writer.write(counter.key + "," + get(counter) + ",,,,");
+				writer.newLine();
+			}
+			for (Timer timer : TIMERS) {
+				LatencyHistogram histogram = snapshot(timer);
+				writer.write(timer.key + "," + histogram.getCount());
+				for (double p : PERCENTILES) {
+					writer.write("," + histogram.percentile(p));
+				}
+				writer.write("," + histogram.getMax());
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	static void writeJson(File file) throws IOException {
+		// The same numbers as writeCsv, as {"counters": {...}, "timers": {...}}
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write("{\n  \"counters\": {");
+			for (int i = 0; i < COUNTERS.length; i++) {
+				writer.write(i == 0 ? "\n" : ",\n");
+				writer.write("    \"" + COUNTERS[i].key + "\": " + get(COUNTERS[i]));
+			}
+			writer.write("\n  },\n  \"timers\": {");
+			for (int i = 0; i < TIMERS.length; i++) {
+				LatencyHistogram histogram = snapshot(TIMERS[i]);
+				writer.write(i == 0 ? "\n" : ",\n");
+				writer.write("    \"" + TIMERS[i].key + "\": {\"count\": " + histogram.getCount());
+				for (double p : PERCENTILES) {
+					writer.write(", \"p" + (int) p + "\": " + histogram.percentile(p));
+				}
+				writer.write(", \"max\": " + histogram.getMax() + "}");
+			}
+			writer.write("\n  }\n}\n");
+		} finally {
+			writer.close();
+		}
+	}
+}
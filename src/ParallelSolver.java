@@ -0,0 +1,273 @@
+package com.sudoku.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelSolver implements Solver {
+
+	/**
+	 * Work-stealing version of BitmaskSolver's search for very sparse puzzles, where
+	 * proving there is only one solution means exploring a large tree. The top of
+	 * the tree is split at the most constrained square: every candidate becomes
+	 * its own ForkJoinPool task holding a copy of the board and masks. Once a task
+	 * is deep enough, or has few enough empty squares left, it searches its subtree
+	 * sequentially. All tasks share one solution counter. When it reaches the limit
+	 * (the first solution for solve, the second for a uniqueness check), a shared
+	 * flag tells every running task to stop. Not for use from more than one thread
+	 * at a time; the parallelism comes from the pool.
+	 */
+
+	private final int width;
+	private final int cells;
+	private final int allDigits;
+	private final int[] rowOf;
+	private final int[] colOf;
+	private final int[] boxOf;
+
+	// Stop splitting below this many empty squares (30 on a 9x9 board); the subtree
+	// is too small to share
+	private final int sequentialThreshold;
+
+	private final ForkJoinPool pool;
+	private final int maxSplitDepth;
+	private final int[] scratch;
+
+	// Shared by every task of the current search
+	private final AtomicInteger solutions = new AtomicInteger();
+	private volatile boolean done;
+	private int limit;
+	private int[] firstSolution;
+	private boolean haveFirst;
+
+	public ParallelSolver() {
+		this(BoardSize.NINE, ForkJoinPool.commonPool());
+	}
+
+	public ParallelSolver(ForkJoinPool pool) {
+		this(BoardSize.NINE, pool);
+	}
+
+	public ParallelSolver(BoardSize size) {
+		this(size, ForkJoinPool.commonPool());
+	}
+
+	public ParallelSolver(BoardSize size, ForkJoinPool pool) {
+		width = size.getWidth();
+		cells = size.getCells();
+		allDigits = size.getAllDigits();
+		rowOf = size.rowOf;
+		colOf = size.colOf;
+		boxOf = size.boxOf;
+		sequentialThreshold = cells * 3 / 8;
+		scratch = new int[cells];
+		this.pool = pool;
+		// Enough splitting to give every worker several tasks to steal, but no more
+		int depth = 0;
+		for (int tasks = 1; tasks < pool.getParallelism() * 16; tasks *= 3) {
+			depth++;
+		}
+		maxSplitDepth = Math.max(1, depth);
+	}
+
+	@Override
+	public String getName() {
+		return Solvers.PARALLEL;
+	}
+
+	@Override
+	public boolean solve(int[] puzzle) {
+		if (countSolutions(puzzle, 1, scratch) == 0) {
+			return false;
+		}
+		System.arraycopy(scratch, 0, puzzle, 0, cells);
+		return true;
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit) {
+		return countSolutions(puzzle, limit, null);
+	}
+
+	@Override
+	public int countSolutions(int[] puzzle, int limit, int[] solution) {
+		if (puzzle.length != cells) {
+			throw new IllegalArgumentException("Expected " + cells + " squares but got " + puzzle.length);
+		}
+		SearchTask root = new SearchTask(0);
+		for (int i = 0; i < cells; i++) {
+			int num = puzzle[i];
+			if (num == 0) {
+				root.empty[root.emptyCount++] = i;
+				continue;
+			}
+			if (num < 0 || num > width) {
+				throw new IllegalArgumentException("Square " + i + " holds " + num + ", expected 0-" + width);
+			}
+			int bit = 1 << (num - 1);
+			if ((root.candidates(i) & bit) == 0) {
+				return 0; // Two clues share a row, column or sector
+			}
+			root.grid[i] = num;
+			root.place(i, bit);
+		}
+
+		solutions.set(0);
+		done = false;
+		this.limit = limit;
+		firstSolution = solution;
+		haveFirst = false;
+		pool.invoke(root);
+		firstSolution = null;
+		return Math.min(solutions.get(), limit);
+	}
+
+	private void foundSolution(int[] grid) {
+		int count = solutions.incrementAndGet();
+		if (firstSolution != null) {
+			synchronized (this) {
+				if (!haveFirst) {
+					System.arraycopy(grid, 0, firstSolution, 0, cells);
+					haveFirst = true;
+				}
+			}
+		}
+		if (count >= limit) {
+			done = true; // Every other task sees this and unwinds
+		}
+	}
+
+	private final class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] grid = new int[cells];
+		private final int[] rowUsed = new int[width];
+		private final int[] colUsed = new int[width];
+		private final int[] boxUsed = new int[width];
+		private final int[] empty = new int[cells];
+		private int emptyCount;
+		private final int splitDepth;
+
+		private SearchTask(int splitDepth) {
+			this.splitDepth = splitDepth;
+		}
+
+		private SearchTask(SearchTask parent, int depth, int pos, int bit) {
+			// A copy of the parent's board with one more square filled
+			this(parent.splitDepth + 1);
+			System.arraycopy(parent.grid, 0, grid, 0, cells);
+			System.arraycopy(parent.rowUsed, 0, rowUsed, 0, width);
+			System.arraycopy(parent.colUsed, 0, colUsed, 0, width);
+			System.arraycopy(parent.boxUsed, 0, boxUsed, 0, width);
+			emptyCount = 0;
+			for (int k = depth; k < parent.emptyCount; k++) {
+				if (parent.empty[k] != pos) {
+					empty[emptyCount++] = parent.empty[k];
+				}
+			}
+			grid[pos] = Integer.numberOfTrailingZeros(bit) + 1;
+			place(pos, bit);
+		}
+
+		@Override
+		protected void compute() {
+			int depth = 0;
+			// Fill forced squares in place, then split on the first real choice
+			while (!done) {
+				if (depth == emptyCount) {
+					foundSolution(grid);
+					return;
+				}
+				if (splitDepth >= maxSplitDepth || emptyCount - depth < sequentialThreshold) {
+					search(depth);
+					return;
+				}
+				int best = mostConstrained(depth);
+				int pos = empty[best];
+				int options = candidates(pos);
+				if (options == 0) {
+					return;
+				}
+				empty[best] = empty[depth];
+				empty[depth] = pos;
+				if (Integer.bitCount(options) == 1) {
+					grid[pos] = Integer.numberOfTrailingZeros(options) + 1;
+					place(pos, options);
+					depth++;
+					continue;
+				}
+				List<SearchTask> children = new ArrayList<SearchTask>(Integer.bitCount(options));
+				while (options != 0) {
+					int bit = options & -options;
+					options ^= bit;
+					children.add(new SearchTask(this, depth, pos, bit));
+				}
+				invokeAll(children);
+				return;
+			}
+		}
+
+		private void search(int depth) {
+			// Sequential search of this subtree, giving up as soon as the limit is reached
+			if (done) {
+				return;
+			}
+			if (depth == emptyCount) {
+				foundSolution(grid);
+				return;
+			}
+			int best = mostConstrained(depth);
+			int pos = empty[best];
+			int options = candidates(pos);
+			if (options == 0) {
+				return;
+			}
+			empty[best] = empty[depth];
+			empty[depth] = pos;
+			while (options != 0 && !done) {
+				int bit = options & -options;
+				options ^= bit;
+				grid[pos] = Integer.numberOfTrailingZeros(bit) + 1;
+				place(pos, bit);
+				search(depth + 1);
+				remove(pos, bit);
+			}
+			grid[pos] = 0;
+		}
+
+		private int mostConstrained(int depth) {
+			int best = depth;
+			int bestCount = width + 1;
+			for (int k = depth; k < emptyCount; k++) {
+				int count = Integer.bitCount(candidates(empty[k]));
+				if (count < bestCount) {
+					best = k;
+					bestCount = count;
+					if (count <= 1) {
+						break;
+					}
+				}
+			}
+			return best;
+		}
+
+		private int candidates(int pos) {
+			return ~(rowUsed[rowOf[pos]] | colUsed[colOf[pos]] | boxUsed[boxOf[pos]]) & allDigits;
+		}
+
+		private void place(int pos, int bit) {
+			rowUsed[rowOf[pos]] |= bit;
+			colUsed[colOf[pos]] |= bit;
+			boxUsed[boxOf[pos]] |= bit;
+		}
+
+		private void remove(int pos, int bit) {
+			rowUsed[rowOf[pos]] &= ~bit;
+			colUsed[colOf[pos]] &= ~bit;
+			boxUsed[boxOf[pos]] &= ~bit;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.sudoku.game;
+
+import java.io.Flushable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class PersistenceService {
+
+	/**
+	 * Does the game's file I/O on one background thread, so the GL thread never
+	 * waits on the disk. Tasks (loading a file, say) run one at a time in the order
+	 * they were given. Stores that have changed are handed to schedule() instead,
+	 * and are flushed BATCH_MILLIS later. Any further changes made in the meantime
+	 * go out with the same flush, so a burst of changes costs one write and one
+	 * sync. shutdown() runs whatever is still queued before it returns.
+	 */
+
+	// How long changes are gathered before they are flushed
+	static final long BATCH_MILLIS = 100;
+
+	private final ArrayDeque<Callable<?>> tasks = new ArrayDeque<Callable<?>>();
+	private final LinkedHashSet<Flushable> dirty = new LinkedHashSet<Flushable>();
+	private final Thread worker;
+	private boolean stopping;
+
+	public PersistenceService() {
+		worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				work();
+			}
+		}, "Persistence");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	public synchronized void execute(Callable<?> task) {
+		if (stopping) {
+			throw new IllegalStateException("Persistence service is shut down");
+		}
+		tasks.add(task);
+		notifyAll();
+	}
+
+	public synchronized void schedule(Flushable target) {
+		/**
+		 * Flushes target on the worker thread soon. Scheduling a target that is
+		 * already waiting to be flushed does nothing more.
+		 */
+		if (stopping) {
+			throw new IllegalStateException("Persistence service is shut down");
+		}
+		if (dirty.add(target)) {
+			notifyAll();
+		}
+	}
+
+	public void shutdown() {
+		/**
+		 * Stops taking work, runs the tasks and flushes still waiting, and waits for
+		 * the worker to finish. Calling it again does nothing.
+		 */
+		synchronized (this) {
+			stopping = true;
+			notifyAll();
+		}
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				interrupted = true; // Finish the join first so nothing is lost
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void work() {
+		List<Callable<?>> batchTasks = new ArrayList<Callable<?>>();
+		List<Flushable> batchFlushes = new ArrayList<Flushable>();
+		while (true) {
+			boolean last;
+			synchronized (this) {
+				while (!stopping && tasks.isEmpty() && dirty.isEmpty()) {
+					waitQuietly(0);
+				}
+				// Give a burst of changes time to pile up, unless there's a task to run
+				if (!stopping && tasks.isEmpty()) {
+					waitQuietly(BATCH_MILLIS);
+				}
+				last = stopping;
+				batchTasks.addAll(tasks);
+				tasks.clear();
+				batchFlushes.addAll(dirty);
+				dirty.clear();
+			}
+
+			// Tasks first, so a store is loaded before anything is flushed to it
+			for (Callable<?> task : batchTasks) {
+				try {
+					task.call();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+			for (Flushable target : batchFlushes) {
+				try {
+					target.flush();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+			batchTasks.clear();
+			batchFlushes.clear();
+			if (last) {
+				return; // Nothing can be queued once stopping is set
+			}
+		}
+	}
+
+	private void waitQuietly(long millis) {
+		// Only the worker waits, and it is never interrupted
+		try {
+			wait(millis);
+		} catch (InterruptedException e) {
+			// Check the queues again
+		}
+	}
+}
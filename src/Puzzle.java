@@ -0,0 +1,56 @@
+package com.sudoku.game;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class Puzzle {
+
+	/**
+	 * A playable board: the completed solution, the clues shown at the start (0 for
+	 * every square the player has to fill), its difficulty, and the hardest
+	 * technique needed to solve it (null if it needs more than LogicalSolver
+	 * knows, or is larger than the 9x9 boards LogicalSolver grades). Both grids are
+	 * flat, row-major int[]s of one BoardSize.
+	 */
+
+	private final int[] givens;
+	private final int[] solution;
+	private final difficulty dif;
+	private final Technique hardest;
+
+	public Puzzle(int[] givens, int[] solution, difficulty dif, Technique hardest) {
+		this.givens = givens;
+		this.solution = solution;
+		this.dif = dif;
+		this.hardest = hardest;
+	}
+
+	public int[] getGivens() {
+		return givens;
+	}
+
+	public int[] getSolution() {
+		return solution;
+	}
+
+	public BoardSize getSize() {
+		return BoardSize.forCells(givens.length);
+	}
+
+	public difficulty getDifficulty() {
+		return dif;
+	}
+
+	public Technique getHardestTechnique() {
+		return hardest;
+	}
+
+	public int countClues() {
+		int clues = 0;
+		for (int num : givens) {
+			if (num != 0) {
+				clues++;
+			}
+		}
+		return clues;
+	}
+}
@@ -0,0 +1,189 @@
+package com.sudoku.game;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class PuzzleBank implements Closeable {
+
+	/**
+	 * A read-only file of prebuilt 9x9 puzzles, written by PuzzleBankWriter. The
+	 * file starts with a HEADER_SIZE byte header holding the number of puzzles of
+	 * each difficulty. The records follow, grouped by difficulty in ordinal order,
+	 * so the index of a difficulty is just where its group starts. Every record is
+	 * RECORD_SIZE (53) bytes:
+	 *
+	 * - 1 byte: the hardest technique's ordinal + 1, or 0 for none
+	 * - 41 bytes: the solution, one square per 4 bits (high nibble first)
+	 * - 11 bytes: one bit per square marking the clues (lowest bit first)
+	 *
+	 * That is about 1 GB for 20 million puzzles. The file is read through
+	 * MappedByteBuffers of at most 1 GB each, so picking a puzzle is a bit of
+	 * arithmetic and a 53 byte read, and the OS only pages in the parts of the file
+	 * that are actually used. Reads are absolute, so a bank can be shared between
+	 * threads.
+	 */
+
+	static final int MAGIC = 0x53444B42; // "SDKB"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+	static final int CELLS = 81;
+	static final int SOLUTION_BYTES = (CELLS + 1) / 2;
+	static final int GIVENS_BYTES = (CELLS + 7) / 8;
+	static final int RECORD_SIZE = 1 + SOLUTION_BYTES + GIVENS_BYTES;
+
+	// Records per mapped segment, so that no segment is bigger than 1 GB
+	private static final long SEGMENT_RECORDS = (1L << 30) / RECORD_SIZE;
+
+	private static final difficulty[] DIFFICULTIES = difficulty.values();
+	private static final Technique[] TECHNIQUES = Technique.values();
+
+	private final RandomAccessFile file;
+	private final MappedByteBuffer[] segments;
+	private final long[] first = new long[DIFFICULTIES.length];
+	private final long[] counts = new long[DIFFICULTIES.length];
+
+	private PuzzleBank(RandomAccessFile file, long[] counts) throws IOException {
+		this.file = file;
+		long total = 0;
+		for (int d = 0; d < DIFFICULTIES.length; d++) {
+			first[d] = total;
+			this.counts[d] = counts[d];
+			total += counts[d];
+		}
+		if (file.length() != HEADER_SIZE + total * RECORD_SIZE) {
+			throw new IOException("Puzzle bank should hold " + total + " puzzles but is " + file.length() + " bytes");
+		}
+
+		// Map the records in segments; nothing is read until a puzzle is
+		FileChannel channel = file.getChannel();
+		segments = new MappedByteBuffer[(int) ((total + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+		for (int s = 0; s < segments.length; s++) {
+			long start = s * SEGMENT_RECORDS;
+			long records = Math.min(SEGMENT_RECORDS, total - start);
+			segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start * RECORD_SIZE,
+					records * RECORD_SIZE);
+		}
+	}
+
+	public static PuzzleBank open(File path) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (file.getChannel().read(header) < 0) {
+					throw new IOException("Not a puzzle bank: " + path);
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a puzzle bank: " + path);
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported puzzle bank version " + version + ": " + path);
+			}
+			long[] counts = new long[DIFFICULTIES.length];
+			for (int d = 0; d < DIFFICULTIES.length; d++) {
+				counts[d] = header.getLong();
+			}
+			return new PuzzleBank(file, counts);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	public long count(difficulty dif) {
+		return counts[dif.ordinal()];
+	}
+
+	public Puzzle get(difficulty dif, long index) {
+		if (index < 0 || index >= counts[dif.ordinal()]) {
+			throw new IndexOutOfBoundsException("Puzzle " + index + " of " + counts[dif.ordinal()] + " " + dif);
+		}
+		long record = first[dif.ordinal()] + index;
+		MappedByteBuffer segment = segments[(int) (record / SEGMENT_RECORDS)];
+		return decode(segment, (int) (record % SEGMENT_RECORDS) * RECORD_SIZE, dif);
+	}
+
+	public Puzzle random(difficulty dif) {
+		/**
+		 * Returns a random puzzle of difficulty dif, or null if the bank has none.
+		 */
+		long count = counts[dif.ordinal()];
+		if (count == 0) {
+			return null;
+		}
+		return get(dif, ThreadLocalRandom.current().nextLong(count));
+	}
+
+	@Override
+	public void close() throws IOException {
+		// The mappings themselves are released when they are garbage collected
+		file.close();
+	}
+
+	static void writeHeader(ByteBuffer header, long[] counts) {
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		for (long count : counts) {
+			header.putLong(count);
+		}
+		while (header.position() < HEADER_SIZE) {
+			header.put((byte) 0);
+		}
+	}
+
+	static void encode(Puzzle puzzle, ByteBuffer out) {
+		// Writes RECORD_SIZE bytes at the buffer's position
+		int[] solution = puzzle.getSolution();
+		int[] givens = puzzle.getGivens();
+		if (solution.length != CELLS) {
+			throw new IllegalArgumentException("Puzzle banks only hold 9x9 puzzles");
+		}
+		Technique hardest = puzzle.getHardestTechnique();
+		out.put((byte) (hardest == null ? 0 : hardest.ordinal() + 1));
+		for (int i = 0; i < CELLS; i += 2) {
+			int high = solution[i];
+			int low = i + 1 < CELLS ? solution[i + 1] : 0;
+			out.put((byte) (high << 4 | low));
+		}
+		for (int b = 0; b < GIVENS_BYTES; b++) {
+			int bits = 0;
+			for (int k = 0; k < 8 && b * 8 + k < CELLS; k++) {
+				if (givens[b * 8 + k] != 0) {
+					bits |= 1 << k;
+				}
+			}
+			out.put((byte) bits);
+		}
+	}
+
+	static Puzzle decode(ByteBuffer in, int offset, difficulty dif) {
+		int technique = in.get(offset);
+		int[] solution = new int[CELLS];
+		int[] givens = new int[CELLS];
+		for (int i = 0; i < CELLS; i += 2) {
+			int packed = in.get(offset + 1 + i / 2);
+			solution[i] = (packed >> 4) & 0xF;
+			if (i + 1 < CELLS) {
+				solution[i + 1] = packed & 0xF;
+			}
+		}
+		int givensStart = offset + 1 + SOLUTION_BYTES;
+		for (int i = 0; i < CELLS; i++) {
+			if ((in.get(givensStart + (i >> 3)) & (1 << (i & 7))) != 0) {
+				givens[i] = solution[i];
+			}
+		}
+		return new Puzzle(givens, solution, dif, technique == 0 ? null : TECHNIQUES[technique - 1]);
+	}
+}
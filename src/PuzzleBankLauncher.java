@@ -0,0 +1,43 @@
+package com.sudoku.game.desktop;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import com.sudoku.game.PuzzleBankWriter;
+
+public class PuzzleBankLauncher {
+
+	/**
+	 * Headless entry point that builds a puzzle bank for the game to ship with.
+	 * The four counts are the number of Easy, Intermediate, Advanced and Expert
+	 * puzzles to generate. The seed defaults to the current time and is printed, so
+	 * that any puzzle in the bank can be traced back to it.
+	 *
+	 * Usage: PuzzleBankLauncher <output> <easy> <intermediate> <advanced> <expert> [threads] [seed]
+	 */
+
+	public static void main(String[] arg) throws IOException, InterruptedException, ExecutionException {
+		if (arg.length < 5) {
+			System.err.println(
+					"Usage: PuzzleBankLauncher <output> <easy> <intermediate> <advanced> <expert> [threads] [seed]");
+			System.exit(2);
+		}
+		long[] counts = new long[4];
+		long total = 0;
+		for (int d = 0; d < counts.length; d++) {
+			counts[d] = Long.parseLong(arg[d + 1]);
+			total += counts[d];
+		}
+		int threads = arg.length > 5 ? Integer.parseInt(arg[5]) : Runtime.getRuntime().availableProcessors();
+		long seed = arg.length > 6 ? Long.parseLong(arg[6]) : System.currentTimeMillis();
+		System.out.println("Seed " + seed);
+
+		long start = System.nanoTime();
+		long duplicates = PuzzleBankWriter.generate(new File(arg[0]), counts, threads, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Wrote %d puzzles to %s in %.1f s on %d threads (%.0f puzzles/s)%n", total, arg[0], seconds,
+				threads, total / seconds);
+		System.out.println("Dropped " + duplicates + " duplicate puzzles");
+	}
+}
@@ -0,0 +1,197 @@
+package com.sudoku.game;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class PuzzleBankWriter implements Closeable {
+
+	/**
+	 * Builds a PuzzleBank file holding a fixed number of puzzles of each
+	 * difficulty. Every difficulty owns a run of slots in the file, so puzzles can
+	 * be added in any order, from any number of threads. Each one goes into the next
+	 * free slot of its own difficulty. Records are gathered in a buffer per
+	 * difficulty and written out a run at a time. The header is written by close()
+	 * only once every slot is filled, so a bank that was cut short never looks
+	 * valid to PuzzleBank.open. Every puzzle comes with its GridCanonicalizer
+	 * fingerprint, and one that is already in the bank, however it is disguised,
+	 * is turned away.
+	 */
+
+	// Records buffered per difficulty before they are written
+	private static final int BUFFERED_RECORDS = 4096;
+
+	private static final difficulty[] DIFFICULTIES = difficulty.values();
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long[] counts;
+	private final long[] first = new long[DIFFICULTIES.length];
+	private final long[] added = new long[DIFFICULTIES.length];
+	private final long[] flushed = new long[DIFFICULTIES.length];
+	private final ByteBuffer[] buffers = new ByteBuffer[DIFFICULTIES.length];
+	private final FingerprintSet fingerprints;
+	private long duplicates;
+
+	public PuzzleBankWriter(File path, long[] counts) throws IOException {
+		/**
+		 * counts holds how many puzzles of each difficulty the bank will have, in
+		 * ordinal order.
+		 */
+		if (counts.length != DIFFICULTIES.length) {
+			throw new IllegalArgumentException("Expected " + DIFFICULTIES.length + " counts but got " + counts.length);
+		}
+		this.counts = counts.clone();
+		long total = 0;
+		for (int d = 0; d < DIFFICULTIES.length; d++) {
+			first[d] = total;
+			total += counts[d];
+			buffers[d] = ByteBuffer.allocate(BUFFERED_RECORDS * PuzzleBank.RECORD_SIZE);
+		}
+		// Sized up front, so the set never grows while the bank is being filled
+		fingerprints = new FingerprintSet((int) Math.min(total, Integer.MAX_VALUE));
+		file = new RandomAccessFile(path, "rw");
+		channel = file.getChannel();
+		// A zeroed header until close(), which PuzzleBank.open rejects
+		file.setLength(0);
+		file.setLength(PuzzleBank.HEADER_SIZE + total * PuzzleBank.RECORD_SIZE);
+	}
+
+	public synchronized boolean add(Puzzle puzzle, long fingerprint) throws IOException {
+		/**
+		 * Puts puzzle in the next free slot of its difficulty. Returns false, and
+		 * writes nothing, if that difficulty is already full or the bank already
+		 * holds the puzzle. The fingerprint is worked out by the caller, so that
+		 * threads adding puzzles don't wait on each other's canonicalization.
+		 */
+		int d = puzzle.getDifficulty().ordinal();
+		if (added[d] == counts[d]) {
+			return false;
+		}
+		if (!fingerprints.add(fingerprint)) {
+			duplicates++;
+			return false;
+		}
+		PuzzleBank.encode(puzzle, buffers[d]);
+		added[d]++;
+		if (!buffers[d].hasRemaining() || added[d] == counts[d]) {
+			flush(d);
+		}
+		return true;
+	}
+
+	public synchronized long getDuplicates() {
+		// How many puzzles add() turned away because the bank already held them
+		return duplicates;
+	}
+
+	public synchronized long remaining(difficulty dif) {
+		return counts[dif.ordinal()] - added[dif.ordinal()];
+	}
+
+	public synchronized boolean isComplete() {
+		for (int d = 0; d < DIFFICULTIES.length; d++) {
+			if (added[d] < counts[d]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			for (int d = 0; d < DIFFICULTIES.length; d++) {
+				flush(d);
+			}
+			if (isComplete()) {
+				ByteBuffer header = ByteBuffer.allocate(PuzzleBank.HEADER_SIZE);
+				PuzzleBank.writeHeader(header, counts);
+				header.flip();
+				writeFully(header, 0);
+				channel.force(true);
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	private void flush(int d) throws IOException {
+		// The buffer holds the records added since the last flush, which sit right
+		// after the ones already written
+		ByteBuffer buffer = buffers[d];
+		buffer.flip();
+		writeFully(buffer, PuzzleBank.HEADER_SIZE + (first[d] + flushed[d]) * PuzzleBank.RECORD_SIZE);
+		flushed[d] = added[d];
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	public static long generate(File path, long[] counts, int threads, long seed)
+			throws IOException, InterruptedException, ExecutionException {
+		/**
+		 * Fills a new bank at path with freshly generated puzzles, on threads worker
+		 * threads with a PuzzleGenerator each. Workers take turns between the
+		 * difficulties that still have free slots. A puzzle that came out easier than
+		 * asked for (see PuzzleGenerator.generate) goes into its own difficulty, or is
+		 * dropped if that one is full or already holds the same puzzle.
+		 *
+		 * Each worker gets its own SplittableRandom, split off one seeded with seed,
+		 * and draws the seed of every puzzle it makes from that, so workers never
+		 * share a random source. Every puzzle can be made again from its seed, though
+		 * which worker fills which slot depends on timing. Returns how many puzzles
+		 * were dropped as duplicates.
+		 */
+		final PuzzleBankWriter writer = new PuzzleBankWriter(path, counts);
+		SplittableRandom seeds = new SplittableRandom(seed);
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				final SplittableRandom random = seeds.split();
+				results.add(workers.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						PuzzleGenerator generator = new PuzzleGenerator();
+						GridCanonicalizer canonicalizer = new GridCanonicalizer();
+						int next = offset;
+						while (!writer.isComplete()) {
+							difficulty dif = DIFFICULTIES[next++ % DIFFICULTIES.length];
+							if (writer.remaining(dif) > 0) {
+								Puzzle puzzle = generator.generate(dif, random.nextLong());
+								writer.add(puzzle, canonicalizer.fingerprint(puzzle));
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+			return writer.getDuplicates();
+		} finally {
+			workers.shutdownNow();
+			writer.close();
+		}
+	}
+}
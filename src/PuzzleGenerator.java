@@ -0,0 +1,166 @@
+package com.sudoku.game;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class PuzzleGenerator {
+
+	/**
+	 * Turns a completed board from SudokuGenerator into a puzzle with exactly one
+	 * solution, graded by the hardest technique a person needs to solve it (see
+	 * Technique). Squares are visited in a random order and each one is blanked out
+	 * unless that would give the puzzle a second solution, make it harder than the
+	 * requested difficulty, or leave it beyond every technique LogicalSolver knows,
+	 * so every puzzle, Expert ones included, can be solved without guessing.
+	 * Uniqueness is checked with BitmaskSolver.countSolutions, which stops as soon
+	 * as it finds two solutions, and difficulty with LogicalSolver. A puzzle that
+	 * ends up easier than requested is thrown away and another board is tried, up
+	 * to MAX_ATTEMPTS times (MAX_EXPERT_ATTEMPTS for EXPERT), after which the
+	 * hardest attempt is returned. A generator instance must not be shared between
+	 * threads.
+	 *
+	 * LogicalSolver only knows 9x9 boards, so larger boards are graded by how many
+	 * clues are left instead: squares are blanked out until CLUE_SHARE of the board
+	 * remains. On a large, sparse board a single uniqueness check can take seconds,
+	 * so each one is given NODE_LIMIT steps, and a square whose check runs out keeps
+	 * its clue.
+	 *
+	 * Each generate call draws every random choice, the board as well as the order
+	 * the squares are visited in, from one SplittableRandom seeded with its seed,
+	 * so a seed, board size and difficulty always give the same puzzle.
+	 */
+
+	private static final int MAX_ATTEMPTS = 200;
+	// Few boards need an X-Wing or Swordfish once every removal is graded, so
+	// EXPERT gets more tries than the rest
+	private static final int MAX_EXPERT_ATTEMPTS = 1000;
+
+	// Share of the squares kept as clues on boards larger than 9x9, by difficulty
+	private static final float[] CLUE_SHARE = { 0.62f, 0.56f, 0.50f, 0.45f };
+
+	// Steps a uniqueness check on a large board may take before the clue is kept
+	private static final long NODE_LIMIT = 20000;
+
+	private final BoardSize size;
+	private final int cells;
+	private final SudokuGenerator boards;
+	private final BitmaskSolver solver;
+	private final LogicalSolver grader;
+	private final int[] order;
+
+	public PuzzleGenerator() {
+		this(BoardSize.NINE);
+	}
+
+	public PuzzleGenerator(BoardSize size) {
+		this(size, 0);
+	}
+
+	public PuzzleGenerator(BoardSize size, int seedGrids) {
+		// seedGrids above 0 derives the boards from that many seed grids (see SudokuGenerator)
+		this.size = size;
+		cells = size.getCells();
+		boards = new SudokuGenerator(size, seedGrids);
+		solver = new BitmaskSolver(size);
+		order = new int[cells];
+		if (size == BoardSize.NINE) {
+			grader = new LogicalSolver();
+		} else {
+			grader = null;
+			solver.setNodeLimit(NODE_LIMIT);
+		}
+	}
+
+	public BoardSize getSize() {
+		return size;
+	}
+
+	public Puzzle generate(difficulty dif) {
+		// A fresh seed from the calling thread's own generator
+		return generate(dif, ThreadLocalRandom.current().nextLong());
+	}
+
+	public Puzzle generate(difficulty dif, long seed) {
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(seed);
+		Puzzle puzzle = grader == null ? attemptByClues(dif, random) : attemptUntil(dif, random);
+		Metrics.time(Metrics.Timer.PUZZLE_GENERATION, start);
+		return puzzle;
+	}
+
+	private Puzzle attemptUntil(difficulty dif, SplittableRandom random) {
+		Puzzle best = null;
+		int attempts = dif == difficulty.EXPERT ? MAX_EXPERT_ATTEMPTS : MAX_ATTEMPTS;
+		for (int attempt = 0; attempt < attempts; attempt++) {
+			Puzzle puzzle = attempt(dif, random);
+			if (puzzle.getDifficulty() == dif) {
+				Metrics.count(Metrics.Counter.PUZZLE_REJECTS, attempt);
+				return puzzle;
+			}
+			if (best == null || puzzle.getDifficulty().ordinal() > best.getDifficulty().ordinal()) {
+				best = puzzle;
+			}
+		}
+		Metrics.count(Metrics.Counter.PUZZLE_REJECTS, attempts - 1);
+		return best;
+	}
+
+	private Puzzle attempt(difficulty dif, SplittableRandom random) {
+		int[] solution = new int[cells];
+		boards.generate(solution, random);
+		int[] givens = solution.clone();
+		shuffleOrder(random);
+
+		for (int i = 0; i < cells; i++) {
+			int pos = order[i];
+			givens[pos] = 0;
+			if (solver.countSolutions(givens, 2) != 1 || !solvableAt(givens, dif)) {
+				givens[pos] = solution[pos]; // Removing this clue is ambiguous or too hard
+			}
+		}
+		Technique hardest = grader.grade(givens);
+		return new Puzzle(givens, solution, Technique.difficultyOf(hardest), hardest);
+	}
+
+	private boolean solvableAt(int[] givens, difficulty dif) {
+		// Whether the grader's techniques up to dif solve the puzzle. A puzzle they
+		// can't solve at all is too hard even for EXPERT, as it would need guessing.
+		Technique hardest = grader.grade(givens);
+		return hardest != null && hardest.getDifficulty().ordinal() <= dif.ordinal();
+	}
+
+	private Puzzle attemptByClues(difficulty dif, SplittableRandom random) {
+		int[] solution = new int[cells];
+		boards.generate(solution, random);
+		int[] givens = solution.clone();
+		shuffleOrder(random);
+
+		int clues = cells;
+		int target = (int) (cells * CLUE_SHARE[dif.ordinal()]);
+		for (int i = 0; i < cells && clues > target; i++) {
+			int pos = order[i];
+			givens[pos] = 0;
+			if (solver.countSolutions(givens, 2) != 1 || solver.hitNodeLimit()) {
+				givens[pos] = solution[pos]; // Ambiguous, or too expensive to prove unique
+			} else {
+				clues--;
+			}
+		}
+		return new Puzzle(givens, solution, dif, null);
+	}
+
+	private void shuffleOrder(SplittableRandom random) {
+		// Visit the squares in a random order
+		for (int i = 0; i < cells; i++) {
+			order[i] = i;
+		}
+		for (int i = cells - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+	}
+}
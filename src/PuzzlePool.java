@@ -0,0 +1,180 @@
+package com.sudoku.game;
+
+import java.util.EnumMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.badlogic.gdx.Gdx;
+import com.sudoku.game.Sudoku.difficulty;
+
+public class PuzzlePool {
+
+	/**
+	 * Keeps a small queue of ready-made puzzles for every board size and difficulty
+	 * so that starting a game only has to take one off the front. The queues are
+	 * filled by background worker threads: one fill task is submitted for every free
+	 * slot when the pool starts, and another whenever a puzzle is taken, so each
+	 * queue tops itself back up without ever holding more than its capacity. 9x9
+	 * boards are filled first and keep CAPACITY puzzles; the larger boards, which
+	 * are played less and take longer to make, keep LARGE_CAPACITY. If a queue
+	 * happens to be empty, request() hands back a Future and makes the puzzle on a
+	 * thread of its own, so the render thread never generates. When the game ships
+	 * with a PuzzleBank, 9x9 puzzles of any difficulty the bank holds are read
+	 * straight from it instead, and those queues are never filled.
+	 */
+
+	private static final int CAPACITY = 4;
+	private static final int LARGE_CAPACITY = 1;
+
+	private final EnumMap<BoardSize, EnumMap<difficulty, BlockingQueue<Puzzle>>> pools;
+	private final ExecutorService workers;
+	// Makes the puzzles requested while their queue was empty, ahead of any refills
+	private final ExecutorService urgent;
+	private final ThreadLocal<EnumMap<BoardSize, PuzzleGenerator>> generators;
+	private final PuzzleBank bank;
+
+	public PuzzlePool(int threads, PuzzleBank bank) {
+		this.bank = bank;
+		pools = new EnumMap<BoardSize, EnumMap<difficulty, BlockingQueue<Puzzle>>>(BoardSize.class);
+		for (BoardSize size : BoardSize.values()) {
+			EnumMap<difficulty, BlockingQueue<Puzzle>> queues = new EnumMap<difficulty, BlockingQueue<Puzzle>>(
+					difficulty.class);
+			for (difficulty dif : difficulty.values()) {
+				queues.put(dif, new ArrayBlockingQueue<Puzzle>(capacity(size)));
+			}
+			pools.put(size, queues);
+		}
+		workers = Executors.newFixedThreadPool(threads, threadFactory("puzzle-pool-", Thread.MIN_PRIORITY));
+		// A player is waiting on these, so they don't run at the lowest priority
+		urgent = Executors.newSingleThreadExecutor(threadFactory("puzzle-pool-urgent-", Thread.NORM_PRIORITY));
+		generators = new ThreadLocal<EnumMap<BoardSize, PuzzleGenerator>>() {
+			@Override
+			protected EnumMap<BoardSize, PuzzleGenerator> initialValue() {
+				return new EnumMap<BoardSize, PuzzleGenerator>(BoardSize.class);
+			}
+		};
+	}
+
+	public PuzzlePool(int threads) {
+		this(threads, null);
+	}
+
+	public PuzzlePool(PuzzleBank bank) {
+		// Leave a core for the render thread
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), bank);
+	}
+
+	public PuzzlePool() {
+		this(null);
+	}
+
+	public void start() {
+		// BoardSize.values() starts with NINE, so those puzzles are queued first
+		for (BoardSize size : BoardSize.values()) {
+			for (difficulty dif : difficulty.values()) {
+				if (inBank(size, dif)) {
+					continue;
+				}
+				for (int i = 0; i < capacity(size); i++) {
+					refill(size, dif);
+				}
+			}
+		}
+	}
+
+	public Future<Puzzle> request(final BoardSize size, final difficulty dif) {
+		/**
+		 * Takes a ready puzzle for size and dif and schedules a replacement. The
+		 * Future is done straight away unless that queue was empty. The puzzle is then
+		 * made on the urgent thread, which requests a rendering once it is ready, so
+		 * the caller can check isDone() every frame and show that it is waiting. That
+		 * wait is one generate call: under a second on 9x9, and a second or two on
+		 * 25x25.
+		 */
+		if (inBank(size, dif)) {
+			return CompletableFuture.completedFuture(bank.random(dif));
+		}
+		Puzzle puzzle = pools.get(size).get(dif).poll();
+		refill(size, dif);
+		if (puzzle != null) {
+			return CompletableFuture.completedFuture(puzzle);
+		}
+		try {
+			return urgent.submit(new Callable<Puzzle>() {
+				@Override
+				public Puzzle call() {
+					Puzzle made = generator(size).generate(dif);
+					Gdx.graphics.requestRendering();
+					return made;
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// The pool has been shut down, so the game is exiting and nobody is waiting
+			// on a frame; make the puzzle here rather than fail
+			return CompletableFuture.completedFuture(generator(size).generate(dif));
+		}
+	}
+
+	public void shutdown() {
+		workers.shutdownNow();
+		urgent.shutdownNow();
+	}
+
+	private static ThreadFactory threadFactory(final String name, final int priority) {
+		return new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, name + count.getAndIncrement());
+				thread.setDaemon(true); // Never keep the game alive on exit
+				thread.setPriority(priority);
+				return thread;
+			}
+		};
+	}
+
+	private boolean inBank(BoardSize size, difficulty dif) {
+		return bank != null && size == BoardSize.NINE && bank.count(dif) > 0;
+	}
+
+	private static int capacity(BoardSize size) {
+		return size == BoardSize.NINE ? CAPACITY : LARGE_CAPACITY;
+	}
+
+	private PuzzleGenerator generator(BoardSize size) {
+		// Each thread keeps one generator per board size
+		EnumMap<BoardSize, PuzzleGenerator> own = generators.get();
+		PuzzleGenerator generator = own.get(size);
+		if (generator == null) {
+			generator = new PuzzleGenerator(size);
+			own.put(size, generator);
+		}
+		return generator;
+	}
+
+	private void refill(final BoardSize size, final difficulty dif) {
+		try {
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					if (Thread.currentThread().isInterrupted()) {
+						return;
+					}
+					// offer() never blocks a worker; it drops the puzzle if the queue is somehow full
+					pools.get(size).get(dif).offer(generator(size).generate(dif));
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// The pool has been shut down, so the game is exiting
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.sudoku.game;
+
+public class SavedGame {
+
+	/**
+	 * A game in progress: the puzzle, the squares the player has filled in, their
+	 * pencil marks, the strikes they have left and how long they have played.
+	 * Filled squares are a flat, row-major int[] like the puzzle (0 for none), and
+	 * the marks of each square are a bitmask (bit n - 1 for the number n). A
+	 * GameJournal keeps one up to date as moves are made and rebuilds it from the
+	 * save file to resume a game, so a move has to change it exactly the way
+	 * GameScreen changes the board: filling a square also removes its number from
+	 * the marks of the squares around it.
+	 */
+
+	public static final int STRIKES = 3;
+
+	private final Puzzle puzzle;
+	private final int[] numbers;
+	private final int[] notes;
+	private int strikesLeft = STRIKES;
+	private int elapsedMillis;
+
+	public SavedGame(Puzzle puzzle) {
+		this.puzzle = puzzle;
+		numbers = new int[puzzle.getGivens().length];
+		notes = new int[numbers.length];
+	}
+
+	public Puzzle getPuzzle() {
+		return puzzle;
+	}
+
+	public int getNumber(int cell) {
+		return numbers[cell];
+	}
+
+	public int getNotes(int cell) {
+		return notes[cell];
+	}
+
+	public int getStrikesLeft() {
+		return strikesLeft;
+	}
+
+	public int getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	boolean apply(int move, int cell, int value, int elapsed) {
+		/**
+		 * Makes one GameJournal move, returning false if it doesn't fit this game
+		 * (which is how replaying a save finds where it was cut off).
+		 */
+		BoardSize size = puzzle.getSize();
+		if (cell < 0 || cell >= numbers.length || value < 0 || value > size.getWidth()) {
+			return false;
+		}
+		switch (move) {
+		case GameJournal.FILL:
+			// Only the right number can be filled in
+			if (value != puzzle.getSolution()[cell]) {
+				return false;
+			}
+			numbers[cell] = value;
+			notes[cell] = 0;
+			for (int peer : size.peersOf[cell]) {
+				notes[peer] &= ~(1 << (value - 1));
+			}
+			break;
+		case GameJournal.NOTE:
+			// Toggles one mark
+			if (value == 0) {
+				return false;
+			}
+			notes[cell] ^= 1 << (value - 1);
+			break;
+		case GameJournal.AUTO_NOTES:
+			fillCandidates();
+			break;
+		case GameJournal.CLOCK:
+			// Only the time moves on
+			break;
+		case GameJournal.STRIKE:
+			if (strikesLeft == 0) {
+				return false;
+			}
+			strikesLeft--;
+			break;
+		default:
+			return false;
+		}
+		elapsedMillis = elapsed;
+		return true;
+	}
+
+	private void fillCandidates() {
+		// Marks every empty square with every number its row, column and sector still lack
+		int[] givens = puzzle.getGivens();
+		for (int cell = 0; cell < numbers.length; cell++) {
+			if (givens[cell] != 0 || numbers[cell] != 0) {
+				continue;
+			}
+			int used = 0;
+			for (int peer : puzzle.getSize().peersOf[cell]) {
+				int number = givens[peer] != 0 ? givens[peer] : numbers[peer];
+				if (number != 0) {
+					used |= 1 << (number - 1);
+				}
+			}
+			notes[cell] = ~used & puzzle.getSize().getAllDigits();
+		}
+	}
+
+	void setNotes(int cell, int notes) {
+		// Used when a snapshot is read back
+		this.notes[cell] = notes;
+	}
+
+	void restore(int strikesLeft, int elapsedMillis) {
+		// Used when a snapshot is read back
+		this.strikesLeft = strikesLeft;
+		this.elapsedMillis = elapsedMillis;
+	}
+}
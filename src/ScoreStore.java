@@ -0,0 +1,319 @@
+package com.sudoku.game;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class ScoreStore implements Closeable, Flushable {
+
+	/**
+	 * Keeps the TOP_N fastest solve times for every board size and difficulty. The
+	 * times live in memory as sorted arrays, so recording a time is a binary search
+	 * and showing them is a copy. On disk the store is an append-only log: an 8-byte
+	 * header followed by RECORD_SIZE byte records (board size, difficulty, a
+	 * checksum, the time in seconds and when it was set). Only times that make a
+	 * leaderboard are logged. A crash can therefore only tear the last record,
+	 * which fails its checksum and is cut off the next time the store is loaded.
+	 * Times pushed off a leaderboard stay in the log until more than COMPACT_AFTER
+	 * of them pile up. The live records are then written to a temporary file,
+	 * which atomically replaces the log.
+	 *
+	 * record() and getTimes() never touch the disk, so the game can call them on the
+	 * GL thread. New records wait in memory until flush() writes them all with one
+	 * write and one sync. load(), flush() and compact() do the file I/O and are meant
+	 * to be run one at a time on a PersistenceService thread; until load() has
+	 * finished, flush() leaves the new records where they are.
+	 */
+
+	public static final int TOP_N = 10;
+
+	static final int MAGIC = 0x53444B53; // "SDKS"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int RECORD_SIZE = 16;
+
+	// Dead records the log may hold before it is rewritten
+	private static final int COMPACT_AFTER = 64;
+
+	private static final BoardSize[] SIZES = BoardSize.values();
+	private static final difficulty[] DIFFICULTIES = difficulty.values();
+
+	private final File file;
+
+	// Guarded by this: the leaderboards and the records not yet written
+	private final Leaderboard[] boards = new Leaderboard[SIZES.length * DIFFICULTIES.length];
+	private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * TOP_N);
+
+	// Only used by the thread doing the I/O
+	private FileChannel log;
+	private int logRecords;
+
+	public ScoreStore(File file) {
+		/**
+		 * Creates an empty store for the log at file without reading it; call load()
+		 * (usually on a PersistenceService) to fill it in.
+		 */
+		this.file = file;
+		for (int i = 0; i < boards.length; i++) {
+			boards[i] = new Leaderboard();
+		}
+	}
+
+	public static ScoreStore open(File file) throws IOException {
+		// Creates and loads a store on the calling thread
+		ScoreStore store = new ScoreStore(file);
+		store.load();
+		return store;
+	}
+
+	public synchronized boolean record(BoardSize size, difficulty dif, int seconds) {
+		/**
+		 * Adds a solve time and returns whether it made the leaderboard. Only times
+		 * that do are queued to be written by the next flush().
+		 */
+		long achieved = System.currentTimeMillis();
+		if (!board(size, dif).insert(seconds, achieved)) {
+			return false;
+		}
+		if (pending.remaining() < RECORD_SIZE) {
+			ByteBuffer bigger = ByteBuffer.allocate(pending.capacity() * 2);
+			pending.flip();
+			bigger.put(pending);
+			pending = bigger;
+		}
+		encode(pending, size.ordinal(), dif.ordinal(), seconds, achieved);
+		return true;
+	}
+
+	public synchronized int[] getTimes(BoardSize size, difficulty dif) {
+		// Fastest first
+		Leaderboard board = board(size, dif);
+		int[] times = new int[board.count];
+		System.arraycopy(board.seconds, 0, times, 0, board.count);
+		return times;
+	}
+
+	public void load() throws IOException {
+		/**
+		 * Reads the log, creating it if it doesn't exist yet, merges its times into
+		 * the leaderboards and leaves it open for appending. The file is read before
+		 * the store is locked, so record() and getTimes() never wait on the disk.
+		 */
+		long start = System.nanoTime();
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			ByteBuffer in = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+			while (in.hasRemaining() && channel.read(in) >= 0) {
+				// Read the whole log; it never holds more than a few hundred records
+			}
+			in.flip();
+
+			int records = 0;
+			if (in.remaining() < HEADER_SIZE) {
+				// A new log, or one torn while its header was written
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC);
+				header.putInt(VERSION);
+				header.flip();
+				channel.truncate(0);
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+				channel.force(true);
+			} else {
+				if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+					throw new IOException("Not a score log: " + file);
+				}
+				synchronized (this) {
+					while (in.remaining() >= RECORD_SIZE && decode(in)) {
+						records++;
+					}
+				}
+				// Cut off a record torn by a crash, so new records line up behind the last good one
+				long good = HEADER_SIZE + (long) records * RECORD_SIZE;
+				if (channel.size() > good) {
+					channel.truncate(good);
+				}
+			}
+			logRecords = records;
+		} finally {
+			channel.close();
+		}
+		log = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		if (logRecords - liveRecords() > COMPACT_AFTER) {
+			compact();
+		}
+		Metrics.time(Metrics.Timer.SCORE_IO, start);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		/**
+		 * Appends every record queued since the last flush with a single write, then
+		 * syncs the log once for all of them.
+		 */
+		if (log == null) {
+			return; // Not loaded yet, so there is nowhere to append to
+		}
+		ByteBuffer out;
+		synchronized (this) {
+			if (pending.position() == 0) {
+				return;
+			}
+			pending.flip();
+			out = ByteBuffer.allocate(pending.remaining());
+			out.put(pending);
+			pending.clear();
+		}
+		out.flip();
+		long start = System.nanoTime();
+		int records = out.remaining() / RECORD_SIZE;
+		while (out.hasRemaining()) {
+			log.write(out);
+		}
+		log.force(false);
+		logRecords += records;
+		if (logRecords - liveRecords() > COMPACT_AFTER) {
+			compact();
+		}
+		Metrics.time(Metrics.Timer.SCORE_IO, start);
+	}
+
+	public void compact() throws IOException {
+		/**
+		 * Rewrites the log with only the times still on a leaderboard. The new log is
+		 * written and synced under a temporary name and then renamed over the old one,
+		 * so a crash at any point leaves one complete log or the other. Records still
+		 * waiting for flush() go into the new log as well.
+		 */
+		ByteBuffer out;
+		int live;
+		synchronized (this) {
+			live = liveRecords();
+			out = ByteBuffer.allocate(HEADER_SIZE + live * RECORD_SIZE);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			for (int s = 0; s < SIZES.length; s++) {
+				for (int d = 0; d < DIFFICULTIES.length; d++) {
+					Leaderboard board = boards[s * DIFFICULTIES.length + d];
+					for (int i = 0; i < board.count; i++) {
+						encode(out, s, d, board.seconds[i], board.achieved[i]);
+					}
+				}
+			}
+			pending.clear();
+		}
+		out.flip();
+
+		File temp = new File(file.getPath() + ".tmp");
+		FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+		log.close();
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		log = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		logRecords = live;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// Writes anything still queued first
+		if (log != null) {
+			flush();
+			log.close();
+			log = null;
+		}
+	}
+
+	private boolean decode(ByteBuffer in) {
+		// Reads the record at the buffer's position into its leaderboard, or returns
+		// false (leaving the position alone) if it doesn't check out
+		int start = in.position();
+		int s = in.get(start);
+		int d = in.get(start + 1);
+		short check = in.getShort(start + 2);
+		int seconds = in.getInt(start + 4);
+		long achieved = in.getLong(start + 8);
+		if (s < 0 || s >= SIZES.length || d < 0 || d >= DIFFICULTIES.length
+				|| check != checksum(s, d, seconds, achieved)) {
+			return false;
+		}
+		in.position(start + RECORD_SIZE);
+		boards[s * DIFFICULTIES.length + d].insert(seconds, achieved);
+		return true;
+	}
+
+	private static void encode(ByteBuffer out, int size, int dif, int seconds, long achieved) {
+		out.put((byte) size);
+		out.put((byte) dif);
+		out.putShort(checksum(size, dif, seconds, achieved));
+		out.putInt(seconds);
+		out.putLong(achieved);
+	}
+
+	private static short checksum(int size, int dif, int seconds, long achieved) {
+		int hash = (size << 8 | dif) * 31 + seconds;
+		hash = hash * 31 + (int) (achieved ^ (achieved >>> 32));
+		hash ^= hash >>> 16;
+		return (short) hash;
+	}
+
+	private Leaderboard board(BoardSize size, difficulty dif) {
+		return boards[size.ordinal() * DIFFICULTIES.length + dif.ordinal()];
+	}
+
+	private synchronized int liveRecords() {
+		int live = 0;
+		for (Leaderboard board : boards) {
+			live += board.count;
+		}
+		return live;
+	}
+
+	private static class Leaderboard {
+
+		// Sorted fastest first; ties keep the time that was set first ahead
+		private final int[] seconds = new int[TOP_N];
+		private final long[] achieved = new long[TOP_N];
+		private int count;
+
+		private boolean insert(int time, long when) {
+			// Binary search for the first time slower than this one
+			int low = 0, high = count;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (seconds[mid] <= time) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			if (low == TOP_N) {
+				return false;
+			}
+			int moved = Math.min(count, TOP_N - 1) - low;
+			System.arraycopy(seconds, low, seconds, low + 1, moved);
+			System.arraycopy(achieved, low, achieved, low + 1, moved);
+			seconds[low] = time;
+			achieved[low] = when;
+			count = Math.min(count + 1, TOP_N);
+			return true;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.sudoku.game;
+
+public interface SolveListener {
+
+	/**
+	 * Follows a BitmaskSolver search step by step. Both methods are called on the
+	 * solving thread and return false to stop the search.
+	 */
+
+	// The search put number in square pos
+	boolean placed(int pos, int number);
+
+	// The search took back the number in square pos
+	boolean removed(int pos);
+}
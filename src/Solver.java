@@ -0,0 +1,28 @@
+package com.sudoku.game;
+
+public interface Solver {
+
+	/**
+	 * A sudoku solving engine. Puzzles are flat, row-major int[]s with 0 for an
+	 * empty square, sized for the BoardSize the solver was created for.
+	 * Implementations keep their working state in the instance, so a solver must
+	 * not be shared between threads; use Solvers.create to get a new one.
+	 */
+
+	String getName();
+
+	/**
+	 * Solves puzzle in place. Returns false, leaving puzzle untouched, if the clues
+	 * contradict each other or the puzzle has no solution.
+	 */
+	boolean solve(int[] puzzle);
+
+	/**
+	 * Returns how many solutions puzzle has, stopping once limit have been found. If
+	 * solution is not null, the first solution found is copied into it. The puzzle
+	 * is left untouched.
+	 */
+	int countSolutions(int[] puzzle, int limit, int[] solution);
+
+	int countSolutions(int[] puzzle, int limit);
+}
@@ -0,0 +1,41 @@
+package com.sudoku.game;
+
+public class Solvers {
+
+	/**
+	 * Creates solvers by name, so callers (the game, the batch launcher and the
+	 * benchmarks) can switch engines without depending on a specific class.
+	 */
+
+	public static final String BITMASK = "bitmask";
+	public static final String DANCING_LINKS = "dlx";
+	public static final String BACKTRACK = "backtrack";
+	public static final String PARALLEL = "parallel";
+
+	public static final String DEFAULT = BITMASK;
+
+	public static String[] names() {
+		return new String[] { BITMASK, DANCING_LINKS, BACKTRACK, PARALLEL };
+	}
+
+	public static Solver create(String name) {
+		return create(name, BoardSize.NINE);
+	}
+
+	public static Solver create(String name, BoardSize size) {
+		if (BITMASK.equals(name)) {
+			return new BitmaskSolver(size);
+		}
+		if (DANCING_LINKS.equals(name)) {
+			return new DancingLinksSolver(size);
+		}
+		if (BACKTRACK.equals(name)) {
+			return new BacktrackSolver(size);
+		}
+		if (PARALLEL.equals(name)) {
+			return new ParallelSolver(size);
+		}
+		throw new IllegalArgumentException("Unknown solver \"" + name + "\", expected one of "
+				+ String.join(", ", names()));
+	}
+}
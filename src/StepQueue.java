@@ -0,0 +1,67 @@
+package com.sudoku.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StepQueue {
+
+	/**
+	 * A bounded, lock-free queue of non-negative ints for exactly one producer thread
+	 * and one consumer thread. The steps live in a power-of-two ring buffer. The
+	 * producer publishes a step with an ordered write of tail after storing it, and
+	 * the consumer frees its slot the same way with head, so neither side ever
+	 * takes a lock or waits on the other. Each side also keeps its last read of the
+	 * other side's counter, and only reads the shared one again once that runs out.
+	 */
+
+	private final int[] buffer;
+	private final int mask;
+
+	// The next slot to read (written by the consumer) and to write (by the producer)
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	// The producer's last read of head, and the consumer's last read of tail
+	private long headSeen;
+	private long tailSeen;
+
+	public StepQueue(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+		}
+		buffer = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	public boolean offer(int step) {
+		// Producer only; returns false if the queue is full
+		long t = tail.get();
+		if (t - headSeen == buffer.length) {
+			headSeen = head.get();
+			if (t - headSeen == buffer.length) {
+				return false;
+			}
+		}
+		buffer[(int) t & mask] = step;
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	public int poll() {
+		// Consumer only; returns -1 if the queue is empty
+		long h = head.get();
+		if (h == tailSeen) {
+			tailSeen = tail.get();
+			if (h == tailSeen) {
+				return -1;
+			}
+		}
+		int step = buffer[(int) h & mask];
+		head.lazySet(h + 1);
+		return step;
+	}
+
+	public boolean isEmpty() {
+		// Consumer only
+		return head.get() == tail.get();
+	}
+}
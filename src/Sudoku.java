@@ -1,23 +1,115 @@
 package com.sudoku.game;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 
 public class Sudoku extends Game {
 
+	// A prebuilt bank of 9x9 puzzles, used instead of generating them if present
+	private static final String BANK_FILE = "puzzles.bank";
+	private static final String SCORES_FILE = "scores.dat";
+	// The game in progress, so it can be resumed
+	private static final String SAVE_FILE = "save.dat";
+	// Where F4 writes the Metrics
+	private static final String METRICS_CSV = "metrics.csv";
+	private static final String METRICS_JSON = "metrics.json";
+
 	SpriteBatch batch;
-	static enum difficulty {
+	PuzzlePool puzzles;
+	ScoreStore scores;
+	GameJournal journal;
+	PersistenceService persistence;
+	private PuzzleBank bank;
+	public static enum difficulty {
 		EASY, INTERMEDIATE, ADVANCED, EXPERT
 	}
 	
 	@Override
 	public void create() {
+		// Frames are only drawn when something changes: the screens request one on
+		// input, and background work requests one when it finishes
+		Gdx.graphics.setContinuousRendering(false);
 		batch = new SpriteBatch();
+		DigitAtlas.load();
+		bank = openBank();
+		puzzles = new PuzzlePool(bank);
+		puzzles.start();
+		// The scores and saved game are read on the persistence thread; if the scores
+		// can't be, the game plays on with whatever is recorded from now on, but
+		// nothing is saved
+		persistence = new PersistenceService();
+		scores = new ScoreStore(new File(SCORES_FILE));
+		journal = new GameJournal(new File(SAVE_FILE));
+		persistence.execute(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				scores.load();
+				Gdx.graphics.requestRendering();
+				return null;
+			}
+		});
+		persistence.execute(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				journal.load();
+				Gdx.graphics.requestRendering(); // So the title screen can offer to resume it
+				return null;
+			}
+		});
 		setScreen(new TitleScreen(this, batch));
 	}
 	
+	void dumpMetrics() {
+		// Written on the persistence thread, like every other file the game writes
+		persistence.execute(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				Metrics.writeCsv(new File(METRICS_CSV));
+				Metrics.writeJson(new File(METRICS_JSON));
+				return null;
+			}
+		});
+	}
+
 	@Override
 	public void render() {
 		super.render();
 	}
+
+	@Override
+	public void dispose() {
+		// Hides the screen first, which journals the clock of a game in progress
+		super.dispose();
+		puzzles.shutdown();
+		DigitAtlas.dispose();
+		// Flushes anything still waiting before the files are closed
+		persistence.shutdown();
+		try {
+			if (bank != null) {
+				bank.close();
+			}
+			scores.close();
+			journal.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static PuzzleBank openBank() {
+		File file = new File(BANK_FILE);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			return PuzzleBank.open(file);
+		} catch (IOException e) {
+			e.printStackTrace(); // Fall back to generating every puzzle
+			return null;
+		}
+	}
 }
\ No newline at end of file
@@ -1,23 +1,168 @@
 package com.sudoku.game;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Set;
-import java.util.Stack;
-import java.util.Vector;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class SudokuGenerator {
 
-	private static final int WIDTH = 9;
+	/**
+	 * Builds a completed board by filling each sector with a shuffled set of its
+	 * numbers and then repairing the rows and columns one at a time by swapping
+	 * numbers within their band or stack. The board is kept as a flat, row-major
+	 * int[] of any BoardSize. Row and column membership are int masks (bit n set
+	 * means n is present, so 26 bits at most), and the squares that must not be
+	 * swapped again are bits in a long[] indexed by the packed coordinate
+	 * row * width + col. After construction, the repair loop allocates nothing.
+	 *
+	 * Every shuffle draws from the SplittableRandom of the current generate call,
+	 * which is seeded explicitly, so the same seed always gives the same board and
+	 * generators on different threads never share a random source.
+	 *
+	 * A generator made with seed grids skips the repair loop after construction.
+	 * It builds that many boards up front, and every generate call then picks one
+	 * of them and hands back a random symmetry of it (see GridTransform): the
+	 * numbers relabelled, the bands and the rows inside them reordered, the same for
+	 * stacks and columns, and perhaps transposed, which with the reorders covers
+	 * rotations and reflections too. Every symmetry keeps a valid board valid, so a
+	 * board costs one pass over its squares. The seed grids come from fixed seeds,
+	 * so a seed still always gives the same board for a given number of seed grids.
+	 */
+
 	private static final int MAX_TRIES = 20;
 	private static final boolean PRINT = false;
-	private static int[][] board = new int[WIDTH][WIDTH];
 
-	static int[][] generateBoard() {
-		shuffle3x3s();
-		for (int i = 0; i < WIDTH; i++) {
+	// The seed of the first seed grid; seed grid i is made from SEED_GRID_SEED + i
+	private static final long SEED_GRID_SEED = 0x5eed;
+
+	private final BoardSize size;
+	private final int width;
+	private final int boxSize;
+	private final int cells;
+	private final int maxTries;
+
+	private final int[] board;
+	private final int[] digits;
+	private final int[] lastIndex;
+	// The random source of the generate call in progress
+	private SplittableRandom random;
+
+	// Filled in by scanRow/scanCol: the numbers in the line, and the positions in the
+	// line that hold a number seen more than once
+	private int seen;
+	private int matches;
+
+	// Swaps made while generating the current board, reported to Metrics once it is done
+	private long swaps;
+
+	// Packed coordinates (row * width + col) that should not be swapped, 64 per long
+	private final long[] dontSwap;
+
+	// Verified boards that generate transforms instead of repairing, or null
+	private final int[][] seedGrids;
+	private final GridTransform transform;
+
+	public SudokuGenerator() {
+		this(BoardSize.NINE);
+	}
+
+	public SudokuGenerator(BoardSize size) {
+		this(size, 0);
+	}
+
+	public SudokuGenerator(BoardSize size, int seedGrids) {
+		/**
+		 * With seedGrids above 0, builds that many boards with the repair loop now,
+		 * and derives every later board from one of them (see above). 0 gives a
+		 * generator that repairs a new board on every call.
+		 */
+		if (seedGrids < 0) {
+			throw new IllegalArgumentException("Negative number of seed grids: " + seedGrids);
+		}
+		this.size = size;
+		width = size.getWidth();
+		boxSize = size.getBoxSize();
+		cells = size.getCells();
+		// Longer lines need more swaps before they come out right
+		maxTries = MAX_TRIES * boxSize / 3;
+		board = new int[cells];
+		digits = new int[width];
+		lastIndex = new int[width + 1];
+		dontSwap = new long[(cells + 63) / 64];
+		if (seedGrids == 0) {
+			this.seedGrids = null;
+			transform = null;
+		} else {
+			this.seedGrids = new int[seedGrids][cells];
+			for (int i = 0; i < seedGrids; i++) {
+				repair(this.seedGrids[i], new SplittableRandom(SEED_GRID_SEED + i));
+			}
+			transform = new GridTransform(size);
+		}
+	}
+
+	public BoardSize getSize() {
+		return size;
+	}
+
+	int[][] generateBoard() {
+		return generateBoard(ThreadLocalRandom.current().nextLong());
+	}
+
+	int[][] generateBoard(long seed) {
+		/**
+		 * Returns a new, completed and verified board. Every call fills a freshly
+		 * allocated board, so boards handed out earlier are never overwritten. If a row
+		 * or column can't be fixed within maxTries swaps, generation starts over from
+		 * a new shuffle instead of giving up. Each generator works on its own board, so
+		 * separate instances can be used from separate threads at the same time.
+		 */
+		generate(board, seed);
+		int[][] result = new int[width][width];
+		for (int r = 0; r < width; r++) {
+			System.arraycopy(board, r * width, result[r], 0, width);
+		}
+		return result;
+	}
+
+	void generate(int[] out) {
+		generate(out, ThreadLocalRandom.current().nextLong());
+	}
+
+	void generate(int[] out, long seed) {
+		/**
+		 * Same as generateBoard, but writes the board into out as a flat, row-major
+		 * int[] of size.getCells() squares.
+		 */
+		generate(out, new SplittableRandom(seed));
+	}
+
+	void generate(int[] out, SplittableRandom random) {
+		// Draws from random, so that a caller can make a board and more with one seed
+		if (seedGrids != null) {
+			transform.randomize(random);
+			transform.apply(seedGrids[random.nextInt(seedGrids.length)], board);
+			System.arraycopy(board, 0, out, 0, cells);
+		} else {
+			repair(out, random);
+		}
+	}
+
+	private void repair(int[] out, SplittableRandom random) {
+		this.random = random;
+		swaps = 0;
+		int restarts = 0;
+		while (!tryGenerate() || !verifyBoard()) {
+			restarts++; // Start over from a new shuffle
+		}
+		System.arraycopy(board, 0, out, 0, cells);
+		Metrics.count(Metrics.Counter.GENERATOR_SWAPS, swaps);
+		Metrics.count(Metrics.Counter.GENERATOR_RESTARTS, restarts);
+		this.random = null;
+	}
+
+	private boolean tryGenerate() {
+		shuffleSectors();
+		for (int i = 0; i < width; i++) {
 			if (PRINT) {
 				for (int j = 0; j < 5; j++) {
 					System.out.println("-------------------------------");
@@ -25,7 +170,9 @@ public class SudokuGenerator {
 				System.out.println("Fixing Row " + i);
 				printBoard();
 			}
-			fixRow(i);
+			if (!fixRow(i)) {
+				return false;
+			}
 			if (PRINT) {
 				for (int j = 0; j < 5; j++) {
 					System.out.println("-------------------------------");
@@ -33,130 +180,125 @@ public class SudokuGenerator {
 				System.out.println("Fixing Column " + i);
 				printBoard();
 			}
-			fixColumn(i);
-		}
-		if (verifyBoard()) {
-			return board;
-		} else {
-			return new int[9][9];
+			if (!fixColumn(i)) {
+				return false;
+			}
 		}
+		return true;
 	}
 
-	private static void fixRow(int row) {
+	private boolean fixRow(int row) {
 
-		if ((row + 1) % 3 == 0) {
-			return;
+		if ((row + 1) % boxSize == 0) {
+			return true;
 		}
 		int rowStart = row + 1;
-		int rowEnd = ((row / 3) + 1) * 3;
-		Set<Vector<Integer>> dontSwapPos = new HashSet<Vector<Integer>>();
+		int rowEnd = ((row / boxSize) + 1) * boxSize;
+		clearDontSwap();
 		int countTries = 0;
 
 		while (true) {
-			if (countTries > MAX_TRIES) {
-				System.out.println("TERMINATING PROGRAM!");
-				System.exit(0);
+			if (countTries > maxTries) {
+				swaps += countTries;
+				return false; // Give up on this board and start over
 			}
 			if (PRINT) {
 				printBoard();
 			}
-			LinkedList<Integer> thisRow = new LinkedList<Integer>();
-			Set<Integer> matchCols = new HashSet<Integer>();
-			Set<Integer> prioritySwapNums = new HashSet<Integer>();
 
-			// Populate thisRow and duplicateCols
-			scanRow(row, thisRow, matchCols);
+			// Populate seen and matches (the columns holding duplicates)
+			scanRow(row);
 
 			// First check if the missing number(s) can swap out a number that is in the
 			// same column as a duplicate
 
-			// Start by retrieving the numbers that are in the same columns (and 3x3s) as
+			// Start by retrieving the numbers that are in the same columns (and sectors) as
 			// matches
-			for (int col : matchCols) {
+			int prioritySwapNums = 0;
+			for (int cols = matches; cols != 0; cols &= cols - 1) {
+				int col = Integer.numberOfTrailingZeros(cols);
 				for (int r = rowStart; r < rowEnd; r++) {
-					prioritySwapNums.add(board[r][col]);
+					prioritySwapNums |= 1 << board[r * width + col];
 				}
 			}
-			if (swapR1(row, thisRow, matchCols, prioritySwapNums, dontSwapPos, rowStart, rowEnd)) {
+			if (swapR1(row, prioritySwapNums, rowStart, rowEnd)) {
 				countTries++;
 				continue;
 			}
-			// Second, try to find a missing number in any square that is not in dontSwapPos
+			// Second, try to find a missing number in any square that is not in dontSwap
 			// and swap it in
-			if (swapR2(row, thisRow, dontSwapPos, rowStart, rowEnd)) {
+			if (swapR2(row, rowStart, rowEnd)) {
 				countTries++;
 			} else { // If the second method cannot find a value to swap, the row is fixed
-				break;
+				swaps += countTries;
+				return true;
 			}
 		}
 	}
 
-	private static void fixColumn(int col) {
+	private boolean fixColumn(int col) {
 
-		if ((col + 1) % 3 == 0) {
-			return;
+		if ((col + 1) % boxSize == 0) {
+			return true;
 		}
 		int colStart = col + 1;
-		int colEnd = ((col / 3) + 1) * 3;
-		Set<Vector<Integer>> dontSwapPos = new HashSet<Vector<Integer>>();
+		int colEnd = ((col / boxSize) + 1) * boxSize;
+		clearDontSwap();
 		int countTries = 0;
 
 		while (true) {
-			if (countTries > MAX_TRIES) {
-				System.out.println("TERMINTATING PROGRAM!");
-				System.exit(0);
+			if (countTries > maxTries) {
+				swaps += countTries;
+				return false; // Give up on this board and start over
 			}
 			if (PRINT) {
 				printBoard();
 			}
-			LinkedList<Integer> thisCol = new LinkedList<Integer>();
-			Set<Integer> matchRows = new HashSet<Integer>();
-			Set<Integer> prioritySwapNums = new HashSet<Integer>();
 
-			// Populate thisCol and matchRows
-			scanCol(col, thisCol, matchRows);
+			// Populate seen and matches (the rows holding duplicates)
+			scanCol(col);
 
 			// First check if the missing number can swap out a number that is in the same
 			// row as a duplicate
 
-			// Start by retrieving the numbers that are in the same rows (and 3x3s) as
+			// Start by retrieving the numbers that are in the same rows (and sectors) as
 			// matches
-			for (int row : matchRows) {
+			int prioritySwapNums = 0;
+			for (int rows = matches; rows != 0; rows &= rows - 1) {
+				int row = Integer.numberOfTrailingZeros(rows);
 				for (int c = colStart; c < colEnd; c++) {
-					prioritySwapNums.add(board[row][c]);
+					prioritySwapNums |= 1 << board[row * width + c];
 				}
 			}
-			if (swapC1(col, thisCol, matchRows, prioritySwapNums, dontSwapPos, colStart, colEnd)) {
+			if (swapC1(col, prioritySwapNums, colStart, colEnd)) {
 				countTries++;
 				continue;
 			}
-			// Second, try to find a missing number in any square that is not in dontSwapPos
+			// Second, try to find a missing number in any square that is not in dontSwap
 			// and swap it in
-			if (swapC2(col, thisCol, dontSwapPos, colStart, colEnd)) {
+			if (swapC2(col, colStart, colEnd)) {
 				countTries++;
 			} else { // If the second method cannot find a value to swap, the column is fixed
-				break;
+				swaps += countTries;
+				return true;
 			}
 		}
 	}
 
-	private static boolean swapR1(int row, LinkedList<Integer> thisRow, Set<Integer> matchCols, Set<Integer> swapNums,
-			Set<Vector<Integer>> dontSwapPos, int rowStart, int rowEnd) {
+	private boolean swapR1(int row, int swapNums, int rowStart, int rowEnd) {
 
+		int matchCols = matches;
 		boolean swapped = false;
 		int swappedNum = 0;
-		for (int c = 0; c < WIDTH; c++) {
-			if (swapNums.contains(board[row][c])) {
+		for (int c = 0; c < width; c++) {
+			if ((swapNums & (1 << board[row * width + c])) != 0) {
 				for (int r = rowStart; r < rowEnd; r++) {
-					if (!thisRow.contains(board[r][c])) {
-						swappedNum = board[row][c];
+					if ((seen & (1 << board[r * width + c])) == 0) {
+						swappedNum = board[row * width + c];
 						swap(row, c, r, c);
-						Vector<Integer> add = new Vector<Integer>(2);
-						add.add(r);
-						add.add(c);
-						dontSwapPos.add(add);
+						addDontSwap(r * width + c);
 						swapped = true;
-						matchCols.remove(c);
+						matchCols &= ~(1 << c);
 						break;
 					}
 				}
@@ -167,14 +309,12 @@ public class SudokuGenerator {
 		if (PRINT) {
 			printBoard();
 		}
-		for (int col : matchCols) {
+		for (; matchCols != 0; matchCols &= matchCols - 1) {
+			int col = Integer.numberOfTrailingZeros(matchCols);
 			for (int r = rowStart; r < rowEnd; r++) {
-				if (board[r][col] == swappedNum) {
+				if (board[r * width + col] == swappedNum) {
 					swap(row, col, r, col);
-					Vector<Integer> add = new Vector<Integer>(2);
-					add.add(r);
-					add.add(col);
-					dontSwapPos.add(add);
+					addDontSwap(r * width + col);
 					return true;
 				}
 			}
@@ -182,34 +322,18 @@ public class SudokuGenerator {
 		return false;
 	}
 
-	private static boolean swapR2(int row, LinkedList<Integer> thisRow, Set<Vector<Integer>> dontSwapPos, int rowStart,
-			int rowEnd) {
+	private boolean swapR2(int row, int rowStart, int rowEnd) {
 
 		for (int r = rowStart; r < rowEnd; r++) {
-			for (int c = 0; c < WIDTH; c++) {
-				Vector<Integer> containsTest = new Vector<Integer>(2);
-				containsTest.add(r);
-				containsTest.add(c);
-				if (dontSwapPos.contains(containsTest)) {
+			for (int c = 0; c < width; c++) {
+				int pos = r * width + c;
+				if (isDontSwap(pos)) {
 					continue;
 				}
-				if (!thisRow.contains(board[r][c])) {
-					LinkedList<Vector<Integer>> removeList = new LinkedList<Vector<Integer>>();
-					Iterator<Vector<Integer>> it = dontSwapPos.iterator();
-					while (it.hasNext()) {
-						Vector<Integer> coords = it.next();
-						if (board[coords.firstElement()][coords.lastElement()] == board[row][c]) {
-							removeList.add(coords);
-						}
-					}
-					for (Vector<Integer> v : removeList) {
-						dontSwapPos.remove(v);
-					}
+				if ((seen & (1 << board[pos])) == 0) {
+					removeDontSwap(board[row * width + c]);
 					swap(row, c, r, c);
-					Vector<Integer> add = new Vector<Integer>(2);
-					add.add(r);
-					add.add(c);
-					dontSwapPos.add(add);
+					addDontSwap(pos);
 					return true;
 				}
 			}
@@ -217,23 +341,20 @@ public class SudokuGenerator {
 		return false;
 	}
 
-	private static boolean swapC1(int col, LinkedList<Integer> thisCol, Set<Integer> matchRows, Set<Integer> swapNums,
-			Set<Vector<Integer>> dontSwapPos, int colStart, int colEnd) {
+	private boolean swapC1(int col, int swapNums, int colStart, int colEnd) {
 
+		int matchRows = matches;
 		boolean swapped = false;
 		int swappedNum = 0;
-		for (int r = 0; r < WIDTH; r++) {
-			if (swapNums.contains(board[r][col])) {
+		for (int r = 0; r < width; r++) {
+			if ((swapNums & (1 << board[r * width + col])) != 0) {
 				for (int c = colStart; c < colEnd; c++) {
-					if (!thisCol.contains(board[r][c])) {
-						swappedNum = board[r][col];
+					if ((seen & (1 << board[r * width + c])) == 0) {
+						swappedNum = board[r * width + col];
 						swap(r, col, r, c);
-						Vector<Integer> add = new Vector<Integer>();
-						add.add(r);
-						add.add(c);
-						dontSwapPos.add(add);
+						addDontSwap(r * width + c);
 						swapped = true;
-						matchRows.remove(r);
+						matchRows &= ~(1 << r);
 						break;
 					}
 				}
@@ -245,14 +366,12 @@ public class SudokuGenerator {
 		if (PRINT) {
 			printBoard();
 		}
-		for (int row : matchRows) {
+		for (; matchRows != 0; matchRows &= matchRows - 1) {
+			int row = Integer.numberOfTrailingZeros(matchRows);
 			for (int c = colStart; c < colEnd; c++) {
-				if (board[row][c] == swappedNum) {
+				if (board[row * width + c] == swappedNum) {
 					swap(row, col, row, c);
-					Vector<Integer> add = new Vector<Integer>();
-					add.add(row);
-					add.add(c);
-					dontSwapPos.add(add);
+					addDontSwap(row * width + c);
 					return true;
 				}
 			}
@@ -260,34 +379,18 @@ public class SudokuGenerator {
 		return false;
 	}
 
-	private static boolean swapC2(int col, LinkedList<Integer> thisCol, Set<Vector<Integer>> dontSwapPos, int colStart,
-			int colEnd) {
+	private boolean swapC2(int col, int colStart, int colEnd) {
 
 		for (int c = colStart; c < colEnd; c++) {
-			for (int r = 0; r < WIDTH; r++) {
-				Vector<Integer> containsTest = new Vector<Integer>();
-				containsTest.add(r);
-				containsTest.add(c);
-				if (dontSwapPos.contains(containsTest)) {
+			for (int r = 0; r < width; r++) {
+				int pos = r * width + c;
+				if (isDontSwap(pos)) {
 					continue;
 				}
-				if (!thisCol.contains(board[r][c])) {
-					LinkedList<Vector<Integer>> removeList = new LinkedList<Vector<Integer>>();
-					Iterator<Vector<Integer>> it = dontSwapPos.iterator();
-					while (it.hasNext()) {
-						Vector<Integer> coords = it.next();
-						if (board[coords.firstElement()][coords.lastElement()] == board[r][col]) {
-							removeList.add(coords);
-						}
-					}
-					for (Vector<Integer> v : removeList) {
-						dontSwapPos.remove(v);
-					}
+				if ((seen & (1 << board[pos])) == 0) {
+					removeDontSwap(board[r * width + col]);
 					swap(r, col, r, c);
-					Vector<Integer> add = new Vector<Integer>();
-					add.add(r);
-					add.add(c);
-					dontSwapPos.add(add);
+					addDontSwap(pos);
 					return true;
 				}
 			}
@@ -295,118 +398,149 @@ public class SudokuGenerator {
 		return false;
 	}
 
-	private static void scanRow(int row, LinkedList<Integer> thisRow, Set<Integer> matchCols) {
-		// Populate thisRow and matchCols
+	private void scanRow(int row) {
+		// Populate seen and matches; lastIndex[n] is the last column n was seen in
 
-		for (int c = 0; c < WIDTH; c++) {
-			int check = board[row][c];
-			if (thisRow.contains(check)) {
-				matchCols.add(thisRow.lastIndexOf(check));
-				matchCols.add(c);
+		seen = 0;
+		matches = 0;
+		for (int c = 0; c < width; c++) {
+			int check = board[row * width + c];
+			if ((seen & (1 << check)) != 0) {
+				matches |= 1 << lastIndex[check];
+				matches |= 1 << c;
 			}
-			thisRow.add(check);
+			seen |= 1 << check;
+			lastIndex[check] = c;
 		}
 	}
 
-	private static void scanCol(int col, LinkedList<Integer> thisCol, Set<Integer> matchRows) {
-		// Populate thisCol and matchRows
+	private void scanCol(int col) {
+		// Populate seen and matches; lastIndex[n] is the last row n was seen in
 
-		for (int r = 0; r < WIDTH; r++) {
-			int check = board[r][col];
-			if (thisCol.contains(check)) {
-				matchRows.add(thisCol.lastIndexOf(check));
-				matchRows.add(r);
+		seen = 0;
+		matches = 0;
+		for (int r = 0; r < width; r++) {
+			int check = board[r * width + col];
+			if ((seen & (1 << check)) != 0) {
+				matches |= 1 << lastIndex[check];
+				matches |= 1 << r;
 			}
-			thisCol.add(check);
+			seen |= 1 << check;
+			lastIndex[check] = r;
+		}
+	}
+
+	private void swap(int r1, int c1, int r2, int c2) {
+		int temp = board[r1 * width + c1];
+		board[r1 * width + c1] = board[r2 * width + c2];
+		board[r2 * width + c2] = temp;
+	}
+
+	private void clearDontSwap() {
+		for (int w = 0; w < dontSwap.length; w++) {
+			dontSwap[w] = 0;
 		}
 	}
 
-	private static void swap(int r1, int c1, int r2, int c2) {
-		int temp = board[r1][c1];
-		board[r1][c1] = board[r2][c2];
-		board[r2][c2] = temp;
+	private void addDontSwap(int pos) {
+		dontSwap[pos >>> 6] |= 1L << pos;
 	}
 
-	private static void shuffle3x3s() {
+	private boolean isDontSwap(int pos) {
+		return (dontSwap[pos >>> 6] & (1L << pos)) != 0;
+	}
 
-		Stack<Integer> entries;
-		for (int x = 0; x < 3; x++) {
-			for (int y = 0; y < 3; y++) {
-				int rowStart = x * 3, rowEnd = (x + 1) * 3;
-				int colStart = y * 3, colEnd = (y + 1) * 3;
-				entries = new Stack<Integer>();
-				for (int n = 1; n <= 9; n++) {
-					entries.push(n);
+	private void removeDontSwap(int num) {
+		// Forget every protected square that currently holds num
+		for (int w = 0; w < dontSwap.length; w++) {
+			for (long bits = dontSwap[w]; bits != 0; bits &= bits - 1) {
+				int bit = Long.numberOfTrailingZeros(bits);
+				if (board[(w << 6) + bit] == num) {
+					dontSwap[w] &= ~(1L << bit);
 				}
-				Collections.shuffle(entries);
+			}
+		}
+	}
+
+	private void shuffleSectors() {
+
+		for (int x = 0; x < boxSize; x++) {
+			for (int y = 0; y < boxSize; y++) {
+				int rowStart = x * boxSize, rowEnd = (x + 1) * boxSize;
+				int colStart = y * boxSize, colEnd = (y + 1) * boxSize;
+				for (int n = 1; n <= width; n++) {
+					digits[n - 1] = n;
+				}
+				// Fisher-Yates
+				for (int i = width; i > 1; i--) {
+					int j = random.nextInt(i);
+					int temp = digits[i - 1];
+					digits[i - 1] = digits[j];
+					digits[j] = temp;
+				}
+				// Deal the numbers from the end, as popping them off a stack would
+				int next = width;
 				for (int i = rowStart; i < rowEnd; i++) {
 					for (int j = colStart; j < colEnd; j++) {
-						board[i][j] = entries.pop();
+						board[i * width + j] = digits[--next];
 					}
 				}
 			}
 		}
 	}
 
-	private static boolean verifyBoard() {
-		Set<Integer> check = new HashSet<Integer>();
+	boolean verifyBoard() {
+		int check;
 		// Check the rows
-		for (int r = 0; r < WIDTH; r++) {
-			for (int c = 0; c < WIDTH; c++) {
-				if (check.contains(board[r][c]))
+		for (int r = 0; r < width; r++) {
+			check = 0;
+			for (int c = 0; c < width; c++) {
+				int bit = 1 << board[r * width + c];
+				if ((check & bit) != 0)
 					return false; // Found a duplicate number in this row
-				check.add(board[r][c]);
+				check |= bit;
 			}
-			check.clear();
 		}
 		// Check the columns
-		for (int c = 0; c < WIDTH; c++) {
-			for (int r = 0; r < WIDTH; r++) {
-				if (check.contains(board[r][c]))
+		for (int c = 0; c < width; c++) {
+			check = 0;
+			for (int r = 0; r < width; r++) {
+				int bit = 1 << board[r * width + c];
+				if ((check & bit) != 0)
 					return false; // Found a duplicate number in this column
-				check.add(board[r][c]);
+				check |= bit;
 			}
-			check.clear();
 		}
 		// Check the sectors
-		// Begin by setting the vector to sector (0, 0)
-		Vector<Integer> sec = new Vector<Integer>(2);
-		sec.add(0);
-		sec.add(0);
-		while (sec.firstElement() < 3) { // Break before reaching a 4th row of 3x3 sectors
-			int rowStart = sec.firstElement() * 3, rowEnd = (sec.firstElement() + 1) * 3;
-			int colStart = sec.lastElement() * 3, colEnd = (sec.lastElement() + 1) * 3;
+		for (int sec = 0; sec < width; sec++) {
+			int rowStart = (sec / boxSize) * boxSize, rowEnd = rowStart + boxSize;
+			int colStart = (sec % boxSize) * boxSize, colEnd = colStart + boxSize;
+			check = 0;
 			for (int r = rowStart; r < rowEnd; r++) {
 				for (int c = colStart; c < colEnd; c++) {
-					if (check.contains(board[r][c]))
+					int bit = 1 << board[r * width + c];
+					if ((check & bit) != 0)
 						return false; // Found a duplicate number in this sector
-					check.add(board[r][c]);
+					check |= bit;
 				}
 			}
-			check.clear();
-			if (sec.lastElement() >= 2) { // Move to next row of 3x3s
-				sec.set(0, sec.get(0) + 1);
-				sec.set(1, 0);
-			} else { // Move to the 3x3 to the right
-				sec.set(1, sec.get(1) + 1);
-			}
 		}
-		return true; // Every row, column, and 3x3 has the numbers 1-9
+		return true; // Every row, column, and sector has the numbers 1 to width
 	}
 
-	private static void printBoard() {
+	private void printBoard() {
 		if (PRINT) {
 			System.out.println("---------------------\n---------------------");
-			for (int i = 0; i < WIDTH; i++) {
-				if (i % 3 == 0 && i != 0)
+			for (int i = 0; i < width; i++) {
+				if (i % boxSize == 0 && i != 0)
 					System.out.println("---------------------");
-				for (int j = 0; j < WIDTH; j++) {
-					if (j % 3 == 0 && j != 0)
+				for (int j = 0; j < width; j++) {
+					if (j % boxSize == 0 && j != 0)
 						System.out.print("| ");
-					if (j == WIDTH - 1)
-						System.out.println(board[i][j]);
+					if (j == width - 1)
+						System.out.println(board[i * width + j]);
 					else
-						System.out.print(board[i][j] + " ");
+						System.out.print(board[i * width + j] + " ");
 				}
 			}
 		}
@@ -0,0 +1,43 @@
+package com.sudoku.game;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public enum Technique {
+
+	/**
+	 * The human solving techniques LogicalSolver knows, from simplest to hardest.
+	 * Each one maps to the difficulty of a puzzle whose hardest required step it is.
+	 * A puzzle that needs more than all of these is graded EXPERT as well.
+	 */
+
+	NAKED_SINGLE("Naked single", difficulty.EASY),
+	HIDDEN_SINGLE("Hidden single", difficulty.EASY),
+	LOCKED_CANDIDATES("Locked candidates", difficulty.INTERMEDIATE),
+	NAKED_PAIR("Naked pair", difficulty.ADVANCED),
+	HIDDEN_PAIR("Hidden pair", difficulty.ADVANCED),
+	NAKED_TRIPLE("Naked triple", difficulty.ADVANCED),
+	HIDDEN_TRIPLE("Hidden triple", difficulty.ADVANCED),
+	X_WING("X-Wing", difficulty.EXPERT),
+	SWORDFISH("Swordfish", difficulty.EXPERT);
+
+	private final String displayName;
+	private final difficulty dif;
+
+	private Technique(String displayName, difficulty dif) {
+		this.displayName = displayName;
+		this.dif = dif;
+	}
+
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	public difficulty getDifficulty() {
+		return dif;
+	}
+
+	static difficulty difficultyOf(Technique hardest) {
+		// null means the puzzle needs more than any technique here
+		return hardest == null ? difficulty.EXPERT : hardest.getDifficulty();
+	}
+}
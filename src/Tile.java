@@ -1,33 +1,47 @@
 package com.sudoku.game;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 
 public class Tile {
 
+	// How much of the tile's width a one-digit number and each digit of a two-digit
+	// number take up, and how much of its spot in the tile a pencil mark does
+	private static final float NUMBER_SIZE = 0.5f;
+	private static final float WIDE_NUMBER_SIZE = 0.4f;
+	private static final float NOTE_SIZE = 0.75f;
+	private static final float WIDE_NOTE_SIZE = 0.45f;
+
 	private Rectangle region;
 	private int number;
-	private int note;
+	// Pencil marks, bit n - 1 for the number n
+	private int notes;
+	// The marks sit in a boxSize x boxSize grid inside the tile, like the numbers in a sector
+	private final int boxSize;
 	private int row;
 	private int col;
 	private int testNum;
 	private boolean isFilled;
-	private Sprite numSprite;
-	private Sprite noteSprite;
-	private boolean resetAfterSolve;
-
-	public Tile(Rectangle region, int row, int col, int number, boolean isClue) {
+	private final boolean isClue;
+	// Whether the note clashes with a number in the same row, column or sector
+	private boolean noteConflict;
+	// One sprite per digit, since numbers above 9 on the larger boards need two
+	private Sprite[] numSprites = new Sprite[2];
+	private int numDigits;
+
+	public Tile(Rectangle region, int row, int col, int number, boolean isClue, int boxSize) {
 		setRegion(region);
+		this.boxSize = boxSize;
 		this.row = row;
 		this.col = col;
-		resetAfterSolve = false;
 		setNumber(number);
+		this.isClue = isClue;
 		isFilled = isClue;
 		if (isClue) {
 			testNum = this.number;
-			numSprite.setAlpha(1);
+			setAlpha(numSprites, 1);
 		}
 	}
 
@@ -45,31 +59,46 @@ public class Tile {
 
 	public void setNumber(int number) {
 		this.number = number;
-		String spritePath = number + ".png";
-		numSprite = new Sprite(new Texture(spritePath));
-		numSprite.setPosition(getX() + 16, getY() + 16);
+		layoutNumber(number);
 		if (!isFilled) {
-		numSprite.setAlpha(0);
+			setAlpha(numSprites, 0);
 		}
 	}
 
-	public int getNote() {
-		return note;
+	private void layoutNumber(int value) {
+		// Centre the number in the tile
+		float width = region.getWidth();
+		numDigits = digitCount(value);
+		float size = width * (numDigits == 1 ? NUMBER_SIZE : WIDE_NUMBER_SIZE);
+		showDigits(numSprites, value, getX() + (width - numDigits * size) / 2, getY() + (width - size) / 2, size);
 	}
 
-	public void setNote(int note) {
-		this.note = note;
-		String spritePath = note + ".png";
-		noteSprite = new Sprite(new Texture(spritePath));
-		noteSprite.setOrigin(0, 0);
-		noteSprite.setScale(0.4f);
-		noteSprite.setPosition(getX() + 4, getY() + 40);
+	public int getNotes() {
+		return notes;
 	}
 
-	public void eraseNote() {
-		if (noteSprite != null) {
-			noteSprite.setAlpha(0);
-		}
+	public void setNotes(int notes) {
+		this.notes = notes;
+	}
+
+	public void toggleNote(int note) {
+		notes ^= 1 << (note - 1);
+	}
+
+	public void removeNote(int note) {
+		notes &= ~(1 << (note - 1));
+	}
+
+	public boolean hasNoteConflict() {
+		return noteConflict;
+	}
+
+	public void setNoteConflict(boolean noteConflict) {
+		this.noteConflict = noteConflict;
+	}
+
+	public void eraseNotes() {
+		notes = 0;
 	}
 
 	public float getX() {
@@ -86,32 +115,23 @@ public class Tile {
 	}
 
 	public void showNumber() {
-		numSprite.setAlpha(1);
+		setAlpha(numSprites, 1);
 		isFilled = true;
 	}
 
-	private void hideNumber() {
-		numSprite.setAlpha(0);
-		isFilled = false;
-	}
-
 	public boolean isFilled() {
 		return isFilled;
 	}
 
-	public void setHideAfterSolve(boolean reset) {
-		resetAfterSolve = reset;
+	public boolean isClue() {
+		return isClue;
 	}
 
-	public void hideAfterSolve() {
-		if (resetAfterSolve) {
-			hideNumber();
-		}
-		resetAfterSolve = false;
-	}
-	
 	public void setTestNum(int testNum) {
+		// Shows a number the solver is trying in an empty tile; 0 hides it again
 		this.testNum = testNum;
+		layoutNumber(testNum == 0 ? number : testNum);
+		setAlpha(numSprites, testNum != 0 || isFilled ? 1 : 0);
 	}
 	
 	public int getTestNum() {
@@ -119,9 +139,60 @@ public class Tile {
 	}
 
 	public void draw(SpriteBatch batch) {
-		numSprite.draw(batch);
-		if (noteSprite != null) {
-			noteSprite.draw(batch);
+		for (int d = 0; d < numDigits; d++) {
+			numSprites[d].draw(batch);
+		}
+		if (notes != 0 && !isFilled && testNum == 0) {
+			drawNotes(batch);
+		}
+	}
+
+	private void drawNotes(SpriteBatch batch) {
+		/**
+		 * The mark for n goes in the spot n would have in a sector: 1 in the top left,
+		 * then left to right and top to bottom. Marks are drawn straight from the
+		 * DigitAtlas regions, so a tile needs no sprites for them however many it has.
+		 */
+		float spot = region.getWidth() / boxSize;
+		for (int marks = notes; marks != 0; marks &= marks - 1) {
+			int index = Integer.numberOfTrailingZeros(marks);
+			int value = index + 1;
+			int digits = digitCount(value);
+			float size = spot * (digits == 1 ? NOTE_SIZE : WIDE_NOTE_SIZE);
+			float x = getX() + (index % boxSize) * spot + (spot - digits * size) / 2;
+			float y = getY() + region.getHeight() - (index / boxSize + 1) * spot + (spot - size) / 2;
+			for (int d = digits - 1; d >= 0; d--) {
+				batch.draw(DigitAtlas.get(value % 10), x + d * size, y, size, size);
+				value /= 10;
+			}
+		}
+	}
+
+	private static int digitCount(int value) {
+		return value >= 10 ? 2 : 1;
+	}
+
+	private static void showDigits(Sprite[] sprites, int value, float x, float y, float size) {
+		// Point the sprites at value's digits, laid out left to right from (x, y). The
+		// sprites are created once and then only pointed at another digit's region
+		int digits = digitCount(value);
+		for (int d = digits - 1; d >= 0; d--) {
+			TextureRegion glyph = DigitAtlas.get(value % 10);
+			if (sprites[d] == null) {
+				sprites[d] = new Sprite(glyph);
+			} else {
+				sprites[d].setRegion(glyph);
+			}
+			sprites[d].setBounds(x + d * size, y, size, size);
+			value /= 10;
+		}
+	}
+
+	private static void setAlpha(Sprite[] sprites, float alpha) {
+		for (Sprite sprite : sprites) {
+			if (sprite != null) {
+				sprite.setAlpha(alpha);
+			}
 		}
 	}
 }
@@ -1,5 +1,8 @@
 package com.sudoku.game;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
@@ -21,8 +24,14 @@ public class TitleScreen implements Screen, InputProcessor {
 	
 	private difficulty[] difficulties;
 	private difficulty currDiff;
+	private BoardSize[] sizes;
+	private BoardSize currSize;
 	private BitmapFont selectDiffPrompt;
 	private String prompt;
+	// The game R resumes; it turns up once the persistence thread has read it
+	private SavedGame saved;
+	// The puzzle for the game Space started, while the PuzzlePool is still making it
+	private Future<Puzzle> pending;
 
 	public TitleScreen(Sudoku game, SpriteBatch batch) {
 		this.game = game;
@@ -34,17 +43,28 @@ public class TitleScreen implements Screen, InputProcessor {
 		background = new Sprite(new Texture("titleScreen.png"));
 		difficulties = difficulty.values();
 		currDiff = difficulty.EASY;
-		prompt = "Use the up and down arrow keys to increase or\ndecrease the difficulty\nCurrent difficulty: "
-				+ currDiff.name();
+		sizes = BoardSize.values();
+		currSize = BoardSize.NINE;
+		updatePrompt();
 		selectDiffPrompt = new BitmapFont();
 		selectDiffPrompt.setColor(Color.SKY);
 		Gdx.input.setInputProcessor(this);
+		Gdx.graphics.requestRendering();
 	}
 
 	@Override
 	public void render(float delta) {
+		if (pending != null && pending.isDone()) {
+			startGame();
+			return;
+		}
 		Gdx.gl.glClearColor(1, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		SavedGame latest = game.journal.getSavedGame();
+		if (latest != saved) {
+			saved = latest;
+			updatePrompt();
+		}
 
 		batch.begin();
 		background.draw(batch);
@@ -75,28 +95,92 @@ public class TitleScreen implements Screen, InputProcessor {
 	@Override
 	public void dispose() {
 		selectDiffPrompt.dispose();
+		background.getTexture().dispose();
 	}
 
 	@Override
 	public boolean keyDown(int keycode) {
+		Gdx.graphics.requestRendering();
+		// While the puzzle is being made, Escape gives up on it and every other key waits
+		if (pending != null) {
+			if (keycode == Keys.ESCAPE) {
+				pending.cancel(true);
+				pending = null;
+				updatePrompt();
+			}
+			return false;
+		}
 		if (keycode == Keys.SPACE) {
+			pending = game.puzzles.request(currSize, currDiff);
+			if (pending.isDone()) {
+				startGame();
+			} else {
+				updatePrompt();
+			}
+			return false;
+		}
+		if (keycode == Keys.R && saved != null) {
 			dispose();
-			game.setScreen(new GameScreen(game, batch, currDiff));
+			game.setScreen(new GameScreen(game, batch, saved));
+			return false;
 		}
 		int diffIndex = currDiff.ordinal();
 		if (keycode == Keys.UP && diffIndex < difficulties.length - 1) {
 			currDiff = difficulties[++diffIndex];
-			prompt = "Use the up and down arrow keys to increase or\ndecrease the difficulty\nCurrent difficulty: "
-					+ currDiff.name();
+			updatePrompt();
 		}
 		if (keycode == Keys.DOWN && diffIndex > 0) {
 			currDiff = difficulties[--diffIndex];
-			prompt = "Use the up and down arrow keys to increase or\ndecrease the difficulty\nCurrent difficulty: "
-					+ currDiff.name();
+			updatePrompt();
+		}
+		int sizeIndex = currSize.ordinal();
+		if (keycode == Keys.RIGHT && sizeIndex < sizes.length - 1) {
+			currSize = sizes[++sizeIndex];
+			updatePrompt();
+		}
+		if (keycode == Keys.LEFT && sizeIndex > 0) {
+			currSize = sizes[--sizeIndex];
+			updatePrompt();
 		}
 		return false;
 	}
 
+	private void startGame() {
+		/**
+		 * Starts a game with the pending puzzle. Should making it have failed, the
+		 * player stays on the title screen and can try again.
+		 */
+		Puzzle puzzle;
+		try {
+			puzzle = pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			pending = null;
+			updatePrompt();
+			return;
+		}
+		dispose();
+		game.setScreen(new GameScreen(game, batch, new SavedGame(puzzle)));
+	}
+
+	private void updatePrompt() {
+		if (pending != null) {
+			prompt = "Generating a " + currSize.getLabel() + " " + currDiff.name() + " puzzle...\n\nPress Escape to cancel";
+			return;
+		}
+		prompt = "Use the up and down arrow keys to increase or\ndecrease the difficulty\nCurrent difficulty: "
+				+ currDiff.name() + "\n\nUse the left and right arrow keys to change\nthe board size\nCurrent board: "
+				+ currSize.getLabel();
+		if (saved != null) {
+			Puzzle puzzle = saved.getPuzzle();
+			prompt += "\n\nPress R to resume your " + puzzle.getSize().getLabel() + " "
+					+ puzzle.getDifficulty().name() + " game";
+		}
+	}
+
 	@Override
 	public boolean keyUp(int keycode) {
 		return false;
@@ -0,0 +1,44 @@
+package com.sudoku.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.sudoku.game.Sudoku.difficulty;
+
+public class HintEngineTest {
+
+	private static final int PUZZLES = 20;
+
+	@Test
+	public void hintsSolveGeneratedExpertPuzzles() {
+		// Following nothing but hints must fill every square of an Expert puzzle, from
+		// one solve
+		PuzzleGenerator generator = new PuzzleGenerator();
+		for (long seed = 0; seed < PUZZLES; seed++) {
+			Puzzle puzzle = generator.generate(difficulty.EXPERT, seed);
+			int[] grid = puzzle.getGivens().clone();
+			int[] solution = puzzle.getSolution();
+			HintEngine hints = new HintEngine(grid);
+			int empty = 0;
+			for (int number : grid) {
+				if (number == 0) {
+					empty++;
+				}
+			}
+			for (; empty > 0; empty--) {
+				Hint hint = hints.next();
+				assertNotNull("Hints ran out on the puzzle of seed " + seed, hint);
+				assertEquals(0, grid[hint.getCell()]);
+				assertEquals(solution[hint.getCell()], hint.getNumber());
+				grid[hint.getCell()] = hint.getNumber();
+				hints.fill(hint.getCell(), hint.getNumber());
+			}
+			assertNull(hints.next());
+			// Following the hints never makes the cached solve stale
+			assertEquals(1, hints.getSolves());
+		}
+	}
+}